@@ -0,0 +1,24 @@
+package com.newton.taskmanagementapi.config;
+
+import com.google.api.client.googleapis.GoogleUtils;
+import com.google.api.client.http.HttpTransport;
+import com.newton.taskmanagementapi.service.GoogleCalendarClients;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+@Configuration
+public class GoogleCalendarConfig {
+
+    /**
+     * Shared by every Calendar call, so TLS setup happens once and connections are reused.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public HttpTransport googleHttpTransport(@Value("${google.calendar.max-connections:50}") int maxConnections)
+            throws GeneralSecurityException, IOException {
+        return GoogleCalendarClients.newPooledTransport(GoogleUtils.getCertificateTrustStore(), maxConnections);
+    }
+}
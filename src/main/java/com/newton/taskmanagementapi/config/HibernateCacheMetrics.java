@@ -0,0 +1,80 @@
+package com.newton.taskmanagementapi.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes the hit ratio, hits, misses and size of every second-level cache region, tagged by
+ * region. Hit ratio and counts come from Hibernate's statistics, so they need
+ * {@code hibernate.generate_statistics}; sizes are Caffeine's estimates, which Hibernate does not
+ * report for JCache regions.
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class).unwrap(SessionFactoryImplementor.class);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheManager cacheManager = sessionFactory.getServiceRegistry().getService(RegionFactory.class)
+                instanceof JCacheRegionFactory jcache ? jcache.getCacheManager() : null;
+
+        for (String region : sessionFactory.getCache().getCacheRegionNames()) {
+            if (statistics.getCacheRegionStatistics(region) == null) {
+                // The update timestamps region has no statistics of its own
+                continue;
+            }
+            Gauge.builder("hibernate.cache.region.hit.ratio", statistics, stats -> hitRatio(stats.getCacheRegionStatistics(region)))
+                    .description("Share of second-level cache lookups in the region that were hits")
+                    .tag("region", region)
+                    .register(registry);
+            counter(registry, statistics, region, "hit", CacheRegionStatistics::getHitCount);
+            counter(registry, statistics, region, "miss", CacheRegionStatistics::getMissCount);
+
+            if (cacheManager != null) {
+                Cache<?, ?> cache = cacheManager.getCache(region);
+                if (cache != null) {
+                    Gauge.builder("hibernate.cache.region.size",
+                                    cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class),
+                                    com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                            .description("Estimated number of entries in the second-level cache region")
+                            .tag("region", region)
+                            .register(registry);
+                }
+            }
+        }
+    }
+
+    private static void counter(MeterRegistry registry, Statistics statistics, String region, String result,
+                                ToDoubleFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder("hibernate.cache.region.requests", statistics,
+                        stats -> count.applyAsDouble(stats.getCacheRegionStatistics(region)))
+                .description("Second-level cache lookups in the region, by result")
+                .tags("region", region, "result", result)
+                .register(registry);
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        long lookups = region.getHitCount() + region.getMissCount();
+        return lookups == 0 ? 0 : (double) region.getHitCount() / lookups;
+    }
+}
@@ -0,0 +1,30 @@
+package com.newton.taskmanagementapi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Metrics beyond what Actuator binds on its own. Request latency, the Hikari pool and Hibernate's
+ * session-factory statistics are bound by Actuator; their histograms are enabled in
+ * {@code management.metrics.distribution}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Ordered ahead of the security filters, so the statements of authentication count too.
+     */
+    @Bean
+    public FilterRegistrationBean<RequestQueryMetricsFilter> requestQueryMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.query-stats.response-headers:false}") boolean responseHeaders) {
+        FilterRegistrationBean<RequestQueryMetricsFilter> registration =
+                new FilterRegistrationBean<>(new RequestQueryMetricsFilter(meterRegistry, responseHeaders));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
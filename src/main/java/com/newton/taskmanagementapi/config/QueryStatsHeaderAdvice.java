@@ -0,0 +1,43 @@
+package com.newton.taskmanagementapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sends the request's statement count and JDBC time as {@code X-Query-Count} and
+ * {@code X-DB-Time} when {@code app.query-stats.response-headers} is on. Headers have to be set
+ * before the body is written, so the numbers cover the work done up to that point, which for
+ * these endpoints is all of it.
+ */
+@RestControllerAdvice
+public class QueryStatsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final boolean enabled;
+
+    public QueryStatsHeaderAdvice(@Value("${app.query-stats.response-headers:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats != null) {
+            response.getHeaders().set(RequestQueryStats.COUNT_HEADER, String.valueOf(stats.getStatements()));
+            response.getHeaders().set(RequestQueryStats.TIME_HEADER, stats.formatJdbcTime());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,39 @@
+package com.newton.taskmanagementapi.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds every statement a session prepares, and the time its statements and batches take to
+ * execute, to the current request's {@link RequestQueryStats}. Hibernate creates one per session,
+ * as configured by {@code hibernate.session.events.auto}, and a session is used by one thread at
+ * a time.
+ */
+public class QueryStatsSessionListener implements SessionEventListener {
+
+    private long executeStart;
+
+    @Override
+    public void jdbcPrepareStatementStart() {
+        RequestQueryStats.statementPrepared();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestQueryStats.jdbcExecuted(System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestQueryStats.jdbcExecuted(System.nanoTime() - executeStart);
+    }
+}
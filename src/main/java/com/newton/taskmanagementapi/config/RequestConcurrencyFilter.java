@@ -0,0 +1,58 @@
+package com.newton.taskmanagementapi.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets at most {@code maxConcurrentRequests} requests run at once. A request beyond that waits up
+ * to {@code queueTimeout} for a slot and is then answered with 503 Service Unavailable.
+ */
+@Slf4j
+public class RequestConcurrencyFilter extends OncePerRequestFilter {
+
+    private final Semaphore slots;
+    private final long queueTimeoutNanos;
+    private final String retryAfterSeconds;
+
+    public RequestConcurrencyFilter(int maxConcurrentRequests, Duration queueTimeout) {
+        this.slots = new Semaphore(maxConcurrentRequests, true);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.retryAfterSeconds = String.valueOf(Math.max(1, queueTimeout.toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Rejected {} {}: too many concurrent requests", request.getMethod(), request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            slots.release();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.newton.taskmanagementapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Tracks the JDBC statements and time of each request and records them tagged like
+ * {@code http.server.requests}, by method and URI template, so N+1 regressions show up per
+ * endpoint. The stats stay available as the {@link RequestQueryStats#ATTRIBUTE} request attribute.
+ * With {@code responseHeaders}, they are also sent as {@code X-Query-Count} and {@code X-DB-Time}:
+ * by {@link QueryStatsHeaderAdvice} before a body is written, here for responses without one.
+ */
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean responseHeaders;
+
+    public RequestQueryMetricsFilter(MeterRegistry meterRegistry, boolean responseHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.start();
+        request.setAttribute(RequestQueryStats.ATTRIBUTE, stats);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+            if (responseHeaders && !response.isCommitted()) {
+                response.setHeader(RequestQueryStats.COUNT_HEADER, String.valueOf(stats.getStatements()));
+                response.setHeader(RequestQueryStats.TIME_HEADER, stats.formatJdbcTime());
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestQueryStats stats) {
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uriTemplate(request));
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("JDBC statements prepared while serving a request")
+                .baseUnit("statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        Timer.builder("http.server.requests.jdbc")
+                .description("Time spent executing JDBC statements while serving a request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getJdbcTime());
+    }
+
+    /**
+     * The handler's path pattern, which keeps ids out of the tag; requests no handler matched
+     * share one value.
+     */
+    private static String uriTemplate(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
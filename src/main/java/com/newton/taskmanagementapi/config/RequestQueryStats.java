@@ -0,0 +1,78 @@
+package com.newton.taskmanagementapi.config;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * JDBC statements and time of the HTTP request running on the current thread. A request is
+ * tracked between {@link #start()} and {@link #end()}; statements on threads without a request,
+ * such as the calendar workers, are not counted.
+ */
+public final class RequestQueryStats {
+
+    /**
+     * Request attribute holding the request's stats, for code that runs after the request ended.
+     */
+    public static final String ATTRIBUTE = RequestQueryStats.class.getName();
+
+    public static final String COUNT_HEADER = "X-Query-Count";
+    public static final String TIME_HEADER = "X-DB-Time";
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long jdbcNanos;
+
+    private RequestQueryStats() {
+    }
+
+    public static RequestQueryStats start() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The stats of the request on this thread, or null outside a request.
+     */
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void statementPrepared() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+        }
+    }
+
+    static void jdbcExecuted(long nanos) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.jdbcNanos += nanos;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Time spent executing statements and batches, not counting connection waits or reading
+     * result sets.
+     */
+    public Duration getJdbcTime() {
+        return Duration.ofNanos(jdbcNanos);
+    }
+
+    /**
+     * Value of {@link #TIME_HEADER}: milliseconds with microsecond precision.
+     */
+    public String formatJdbcTime() {
+        return String.format(Locale.ROOT, "%.3f", jdbcNanos / 1_000_000.0);
+    }
+}
@@ -5,6 +5,7 @@ import com.newton.taskmanagementapi.security.CustomOidcUserService;
 import com.newton.taskmanagementapi.security.JwtAuthenticationFilter;
 import com.newton.taskmanagementapi.security.OAuth2AuthenticationFailureHandler;
 import com.newton.taskmanagementapi.security.OAuth2AuthenticationSuccessHandler;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -47,11 +48,16 @@ public class SecurityConfig {
                 .formLogin(AbstractHttpConfigurer::disable)
                 .httpBasic(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches of streaming responses were authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                                 "/",
                                 "/error",
                                 "/favicon.ico",
                                 "/api/auth/**",
+                                "/actuator/health",
+                                // Scraped without a token; served only on the internal management port
+                                "/actuator/prometheus",
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**",
                                 "/swagger-ui.html",
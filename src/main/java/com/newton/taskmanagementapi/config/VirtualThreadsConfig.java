@@ -0,0 +1,31 @@
+package com.newton.taskmanagementapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@code spring.threads.virtual.enabled}, under which Tomcat serves every request on
+ * a virtual thread of its own. Nothing bounds those threads the way the platform pool did, so a
+ * filter caps how many requests work at once; the rest would only queue for database connections.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestConcurrencyFilter> requestConcurrencyFilter(
+            @Value("${app.virtual-threads.max-concurrent-requests:200}") int maxConcurrentRequests,
+            @Value("${app.virtual-threads.queue-timeout:1s}") Duration queueTimeout) {
+        FilterRegistrationBean<RequestConcurrencyFilter> registration =
+                new FilterRegistrationBean<>(new RequestConcurrencyFilter(maxConcurrentRequests, queueTimeout));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -2,7 +2,7 @@ package com.newton.taskmanagementapi.controller;
 
 import com.newton.taskmanagementapi.dto.AuthResponse;
 import com.newton.taskmanagementapi.dto.UserResponse;
-import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.exception.UnauthorizedException;
 import com.newton.taskmanagementapi.security.UserPrincipal;
 import com.newton.taskmanagementapi.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -27,16 +27,22 @@ public class AuthController {
         return ResponseEntity.ok(authService.refreshToken(refreshToken));
     }
 
+    @PostMapping("/revoke")
+    @SecurityRequirement(name = "Bearer Authentication")
+    @Operation(summary = "Revoke tokens", description = "Revoke every access and refresh token issued to the current user")
+    public ResponseEntity<Void> revokeTokens(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        if (userPrincipal == null) {
+            throw new UnauthorizedException("Authentication required");
+        }
+
+        authService.revokeTokens(userPrincipal.getId());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
     @SecurityRequirement(name = "Bearer Authentication")
     @Operation(summary = "Get current user", description = "Get current authenticated user details")
     public ResponseEntity<UserResponse> getCurrentUser(@AuthenticationPrincipal UserPrincipal userPrincipal) {
-        User user = User.builder()
-                .id(userPrincipal.getId())
-                .email(userPrincipal.getEmail())
-                .name(userPrincipal.getName())
-                .build();
-
-        return ResponseEntity.ok(authService.getCurrentUser(user));
+        return ResponseEntity.ok(authService.getCurrentUser(userPrincipal.getId()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.newton.taskmanagementapi.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Validators for conditional GETs. Both are weak: a listing is validated by the user's data
+ * version together with the resource and query it answers, a single task by its update timestamp.
+ */
+final class ETags {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private ETags() {
+    }
+
+    /**
+     * A listing's validator. The resource, e.g. {@code tags/42}, and the query parameters are
+     * hashed into it, so the ETag of one page, filter or resource never validates another.
+     * Parameters are compared by name regardless of their order in the URL.
+     */
+    static String forDataVersion(Long userId, long dataVersion, String resource, Map<String, String[]> parameters) {
+        StringBuilder key = new StringBuilder(resource);
+        new TreeMap<>(parameters).forEach((name, values) -> key.append('\u0000').append(name)
+                .append('=').append(String.join("\u0001", Arrays.asList(values))));
+        return "W/\"u" + userId + "-v" + dataVersion + "-" + hash(key.toString()) + "\"";
+    }
+
+    static String forTask(Long taskId, LocalDateTime updatedAt) {
+        return "W/\"t" + taskId + "-" + ChronoUnit.MICROS.between(EPOCH, updatedAt) + "\"";
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Update timestamps are written in the JVM's zone by Hibernate.
+     */
+    static long lastModified(LocalDateTime updatedAt) {
+        return updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
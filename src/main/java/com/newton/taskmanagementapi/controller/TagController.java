@@ -5,14 +5,17 @@ import com.newton.taskmanagementapi.dto.TagResponse;
 import com.newton.taskmanagementapi.model.User;
 import com.newton.taskmanagementapi.repository.UserRepository;
 import com.newton.taskmanagementapi.security.UserPrincipal;
+import com.newton.taskmanagementapi.service.DataVersionService;
 import com.newton.taskmanagementapi.service.TagService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,29 +27,51 @@ import java.util.List;
 public class TagController {
 
     private final TagService tagService;
+    private final DataVersionService dataVersionService;
     private final UserRepository userRepository;
 
     @GetMapping
     @Operation(summary = "Get all tags", description = "Get all tags with task counts")
     public ResponseEntity<List<TagResponse>> getAllTags(
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        if (isNotModified(userPrincipal, "tags", webRequest)) {
+            return null;
+        }
+
         User user = getUserFromPrincipal(userPrincipal);
         List<TagResponse> tags = tagService.getAllTags(user);
-        return ResponseEntity.ok(tags);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(tags);
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get tag details", description = "Get tag details with all associated tasks")
+    @Operation(summary = "Get tag details", description = "Get tag details with a page of its associated tasks")
     public ResponseEntity<TagDetailResponse> getTagById(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @RequestParam(required = false) List<String> sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
         User user = getUserFromPrincipal(userPrincipal);
-        TagDetailResponse tag = tagService.getTagById(id, user);
-        return ResponseEntity.ok(tag);
+        // A missing tag is a 404 whatever validator the client sends
+        tagService.requireTag(id, user);
+        if (isNotModified(userPrincipal, "tags/" + id, webRequest)) {
+            return null;
+        }
+
+        TagDetailResponse tag = tagService.getTagById(id, user, sort, cursor, limit);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(tag);
+    }
+
+    private boolean isNotModified(UserPrincipal userPrincipal, String resource, WebRequest webRequest) {
+        long dataVersion = dataVersionService.getVersion(userPrincipal.getId());
+        return webRequest.checkNotModified(ETags.forDataVersion(
+                userPrincipal.getId(), dataVersion, resource, webRequest.getParameterMap()));
     }
 
     private User getUserFromPrincipal(UserPrincipal userPrincipal) {
-        return userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Lazy reference: queries only need the id, so no users-table lookup is issued here
+        return userRepository.getReferenceById(userPrincipal.getId());
     }
 }
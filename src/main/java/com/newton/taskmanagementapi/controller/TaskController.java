@@ -1,23 +1,37 @@
 package com.newton.taskmanagementapi.controller;
 
+import com.newton.taskmanagementapi.dto.BulkTaskRequest;
+import com.newton.taskmanagementapi.dto.BulkTaskResponse;
 import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.CursorPageResponse;
+import com.newton.taskmanagementapi.dto.TaskChangesResponse;
+import com.newton.taskmanagementapi.dto.TaskJson;
 import com.newton.taskmanagementapi.dto.TaskResponse;
 import com.newton.taskmanagementapi.dto.UpdateTaskRequest;
 import com.newton.taskmanagementapi.model.User;
 import com.newton.taskmanagementapi.repository.UserRepository;
 import com.newton.taskmanagementapi.security.UserPrincipal;
+import com.newton.taskmanagementapi.service.DataVersionService;
+import com.newton.taskmanagementapi.service.TaskExportService;
 import com.newton.taskmanagementapi.service.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -27,6 +41,8 @@ import java.util.List;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskExportService taskExportService;
+    private final DataVersionService dataVersionService;
     private final UserRepository userRepository;
 
     @PostMapping
@@ -39,25 +55,102 @@ public class TaskController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/bulk")
+    @Operation(summary = "Bulk task operations",
+            description = "Apply up to " + BulkTaskRequest.MAX_OPERATIONS + " CREATE, UPDATE, COMPLETE or DELETE "
+                    + "operations in one transaction. Each task may appear in one operation only")
+    public ResponseEntity<BulkTaskResponse> bulk(
+            @Valid @RequestBody BulkTaskRequest request,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        User user = getUserFromPrincipal(userPrincipal);
+        BulkTaskResponse response = taskService.applyBulk(request.getOperations(), user);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
-    @Operation(summary = "Get all tasks", description = "Get all tasks with optional filters")
-    public ResponseEntity<List<TaskResponse>> getAllTasks(
+    @Operation(summary = "Get all tasks",
+            description = "Get a page of tasks with optional filters. Sort keys: dueDate, createdAt, updatedAt, "
+                    + "title, e.g. sort=dueDate:asc,title:desc. Tags are matched with match=any (default), all or "
+                    + "none. Pass the returned nextCursor to fetch the next page")
+    public ResponseEntity<CursorPageResponse<TaskJson>> getAllTasks(
             @RequestParam(required = false) Boolean completed,
             @RequestParam(required = false) List<String> tags,
+            @RequestParam(required = false) String match,
+            @RequestParam(required = false) List<String> sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
+        if (isNotModified(userPrincipal, "tasks", webRequest)) {
+            return null;
+        }
+
+        User user = getUserFromPrincipal(userPrincipal);
+        CursorPageResponse<TaskJson> tasks = taskService.getAllTasksAsJson(user, completed, tags, match, sort, cursor, limit);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(tasks);
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Get task changes",
+            description = "Get the tasks created, updated or deleted since a sync cursor, oldest first. Omit "
+                    + "since for a full sync; store the returned nextCursor and pass it as since next time")
+    public ResponseEntity<TaskChangesResponse> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        User user = getUserFromPrincipal(userPrincipal);
+        TaskChangesResponse changes = taskService.getChanges(user, since, limit);
+        return ResponseEntity.ok(changes);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search tasks",
+            description = "Full-text search over task titles and descriptions. Every word must match, "
+                    + "either exactly or as a prefix; results are ranked best match first")
+    public ResponseEntity<List<TaskResponse>> searchTasks(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
             @AuthenticationPrincipal UserPrincipal userPrincipal) {
         User user = getUserFromPrincipal(userPrincipal);
-        List<TaskResponse> tasks = taskService.getAllTasks(user, completed, tags);
+        List<TaskResponse> tasks = taskService.searchTasks(user, q, limit);
         return ResponseEntity.ok(tasks);
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export tasks",
+            description = "Stream every task of the current user as NDJSON (default) or CSV")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        TaskExportService.Format exportFormat = TaskExportService.Format.fromName(format);
+        Long userId = userPrincipal.getId();
+
+        StreamingResponseBody body = outputStream -> taskExportService.export(userId, exportFormat, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("tasks." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get task by ID", description = "Get a specific task by its ID")
     public ResponseEntity<TaskResponse> getTaskById(
             @PathVariable Long id,
-            @AuthenticationPrincipal UserPrincipal userPrincipal) {
+            @AuthenticationPrincipal UserPrincipal userPrincipal,
+            WebRequest webRequest) {
         User user = getUserFromPrincipal(userPrincipal);
+        Optional<LocalDateTime> updatedAt = taskService.getTaskUpdatedAt(id, user);
+        if (updatedAt.isPresent()
+                && webRequest.checkNotModified(ETags.forTask(id, updatedAt.get()), ETags.lastModified(updatedAt.get()))) {
+            return null;
+        }
+
         TaskResponse task = taskService.getTaskById(id, user);
-        return ResponseEntity.ok(task);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(task);
     }
 
     @PutMapping("/{id}")
@@ -81,8 +174,14 @@ public class TaskController {
         return ResponseEntity.noContent().build();
     }
 
+    private boolean isNotModified(UserPrincipal userPrincipal, String resource, WebRequest webRequest) {
+        long dataVersion = dataVersionService.getVersion(userPrincipal.getId());
+        return webRequest.checkNotModified(ETags.forDataVersion(
+                userPrincipal.getId(), dataVersion, resource, webRequest.getParameterMap()));
+    }
+
     private User getUserFromPrincipal(UserPrincipal userPrincipal) {
-        return userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Lazy reference: queries only need the id, so no users-table lookup is issued here
+        return userRepository.getReferenceById(userPrincipal.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.newton.taskmanagementapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One operation of a bulk request. {@code CREATE} takes {@code create}; {@code UPDATE} takes
+ * {@code id} and {@code update}; {@code COMPLETE} and {@code DELETE} take {@code id} only.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTaskOperation {
+
+    @NotNull(message = "Operation type is required")
+    private Type op;
+
+    private Long id;
+
+    @Valid
+    private CreateTaskRequest create;
+
+    @Valid
+    private UpdateTaskRequest update;
+
+    public enum Type {
+        CREATE,
+        UPDATE,
+        COMPLETE,
+        DELETE
+    }
+}
@@ -0,0 +1,23 @@
+package com.newton.taskmanagementapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTaskResponse {
+
+    /**
+     * Ids of the created tasks, in the order of their operations.
+     */
+    private List<Long> created;
+    private Integer updated;
+    private Integer completed;
+    private Integer deleted;
+}
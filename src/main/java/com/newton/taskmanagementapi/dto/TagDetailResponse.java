@@ -6,7 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.List;
 
 @Data
 @Builder
@@ -16,7 +16,9 @@ public class TagDetailResponse {
 
     private Long id;
     private String name;
-    private Set<TaskResponse> tasks;
+    private List<TaskResponse> tasks;
+    private String nextCursor;
+    private Boolean hasMore;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,35 @@
+package com.newton.taskmanagementapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A page of changes since a sync cursor. Clients store {@code nextCursor} and pass it as
+ * {@code since} on the next sync; it is returned even when nothing changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskChangesResponse {
+
+    private List<TaskResponse> updated;
+    private List<DeletedTask> deleted;
+    private String nextCursor;
+    private Boolean hasMore;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeletedTask {
+
+        private Long id;
+        private LocalDateTime deletedAt;
+    }
+}
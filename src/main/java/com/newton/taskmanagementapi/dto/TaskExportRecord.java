@@ -0,0 +1,26 @@
+package com.newton.taskmanagementapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskExportRecord {
+
+    private Long id;
+    private String title;
+    private String description;
+    private LocalDateTime dueDate;
+    private Boolean completed;
+    private String googleEventId;
+    private List<String> tags;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
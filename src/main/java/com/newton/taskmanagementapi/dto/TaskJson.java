@@ -0,0 +1,45 @@
+package com.newton.taskmanagementapi.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * A task as listed by the API, serialized to the same JSON as {@link TaskResponse}. Its own
+ * fields come pre-serialized; its tags are written per request, because their task counts change
+ * with other tasks. The tags go first, so the fields can follow as one raw block.
+ */
+@Getter
+@RequiredArgsConstructor
+@Schema(implementation = TaskResponse.class)
+public class TaskJson implements JsonSerializable {
+
+    /**
+     * The task's fields without the enclosing braces.
+     */
+    private final RawJson fields;
+    private final Set<TagResponse> tags;
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName("tags");
+        serializers.defaultSerializeValue(tags, generator);
+        generator.writeRaw(',');
+        generator.writeRaw(fields);
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, serializers);
+    }
+}
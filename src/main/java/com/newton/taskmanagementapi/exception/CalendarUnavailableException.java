@@ -0,0 +1,20 @@
+package com.newton.taskmanagementapi.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A Calendar call was refused before it was made, because a rate limit is used up or the circuit
+ * breaker is open. The call can be tried again after {@link #getRetryAfter()}.
+ */
+@Getter
+public class CalendarUnavailableException extends GoogleCalendarException {
+
+    private final Duration retryAfter;
+
+    public CalendarUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,10 @@
+package com.newton.taskmanagementapi.exception;
+
+/**
+ * Google no longer accepts a stored sync token; the calendar has to be synced in full.
+ */
+public class SyncTokenExpiredException extends GoogleCalendarException {
+    public SyncTokenExpiredException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,33 @@
+package com.newton.taskmanagementapi.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far inbound sync has read a user's Google Calendar: the sync token that lists the events
+ * changed since the last run.
+ */
+@Entity
+@Table(name = "calendar_sync_states")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class CalendarSyncState {
+
+    @Id
+    @Column(name = "user_id")
+    @EqualsAndHashCode.Include
+    private Long userId;
+
+    // Null until the first full sync completes
+    @Column(name = "sync_token", length = 1024)
+    private String syncToken;
+
+    @Column(name = "synced_at")
+    private LocalDateTime syncedAt;
+}
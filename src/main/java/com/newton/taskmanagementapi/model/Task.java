@@ -2,10 +2,14 @@ package com.newton.taskmanagementapi.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -20,7 +24,8 @@ import java.util.Set;
 public class Task {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long id;
 
@@ -40,11 +45,23 @@ public class Task {
     @Column(name = "google_event_id")
     private String googleEventId;
 
+    // Fingerprint of what the calendar event was last written with; unchanged content skips the write
+    @Column(name = "calendar_hash", length = 64)
+    private String calendarHash;
+
+    // The owner's data version at this task's latest write; delta syncs page by it
+    @Column(name = "change_seq", nullable = false)
+    @Builder.Default
+    private Long changeSeq = 0L;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     @ToString.Exclude
     private User user;
 
+    // Cached as tag ids; the tags of a page that are not cached load together, up to a full page
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "task-tags")
+    @BatchSize(size = 200)
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
             name = "task_tags",
@@ -63,6 +80,15 @@ public class Task {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @PrePersist
+    @PreUpdate
+    void normalizeDueDate() {
+        // Databases keep microseconds; matching that keeps keyset cursors consistent with stored rows
+        if (dueDate != null) {
+            dueDate = dueDate.truncatedTo(ChronoUnit.MICROS);
+        }
+    }
+
     public void addTag(Tag tag) {
         tags.add(tag);
         tag.getTasks().add(this);
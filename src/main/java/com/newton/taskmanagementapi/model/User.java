@@ -2,6 +2,8 @@ package com.newton.taskmanagementapi.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,6 +13,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Getter
 @Setter
 @Builder
@@ -51,6 +55,15 @@ public class User {
     @Builder.Default
     private AuthProvider authProvider = AuthProvider.GOOGLE;
 
+    @Column(name = "security_version", nullable = false, columnDefinition = "integer default 0")
+    @Builder.Default
+    private Integer securityVersion = 0;
+
+    // Read-only: only changed by DataVersionService's update query, so saving a cached copy of the
+    // user can never write back a stale version
+    @Column(name = "data_version", nullable = false, insertable = false, updatable = false)
+    private Long dataVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     @ToString.Exclude
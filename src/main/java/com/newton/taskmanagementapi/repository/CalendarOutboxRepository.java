@@ -0,0 +1,82 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.model.CalendarOutboxEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CalendarOutboxRepository extends JpaRepository<CalendarOutboxEntry, Long> {
+
+    /**
+     * Records a SYNC entry for each of the given tasks with one set-based insert. Like the other
+     * native inserts here, it is synchronized on the outbox table alone, which leaves the
+     * second-level cache untouched; pending task writes are flushed first so the insert sees them.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO calendar_outbox (user_id, task_id, operation, status, attempts, next_attempt_at, created_at) " +
+            "SELECT t.user_id, t.id, 'SYNC', 'PENDING', 0, :now, :now FROM tasks t WHERE t.user_id = :userId AND t.id IN (:ids)",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "calendar_outbox"))
+    int insertSyncs(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Records a DELETE entry for each of the given tasks that has, or may be about to get, a calendar
+     * event; must run before the tasks themselves are deleted.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO calendar_outbox (user_id, task_id, operation, google_event_id, status, attempts, next_attempt_at, created_at) " +
+            "SELECT t.user_id, t.id, 'DELETE', t.google_event_id, 'PENDING', 0, :now, :now FROM tasks t " +
+            "WHERE t.user_id = :userId AND t.id IN (:ids) AND (t.google_event_id IS NOT NULL OR t.due_date IS NOT NULL)",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "calendar_outbox"))
+    int insertDeletes(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * Due, unclaimed entries that are the oldest pending entry of their task, oldest first. Later
+     * entries of a task wait for the earlier ones, so each task's operations run in order.
+     */
+    @Query("SELECT o FROM CalendarOutboxEntry o WHERE o.status = 'PENDING' AND o.nextAttemptAt <= :now " +
+            "AND (o.claimedUntil IS NULL OR o.claimedUntil < :now) " +
+            "AND NOT EXISTS (SELECT 1 FROM CalendarOutboxEntry e " +
+            "WHERE e.taskId = o.taskId AND e.status = 'PENDING' AND e.id < o.id) ORDER BY o.id")
+    List<CalendarOutboxEntry> findDispatchable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT o FROM CalendarOutboxEntry o WHERE o.status = 'PENDING' AND o.taskId IN :taskIds ORDER BY o.id")
+    List<CalendarOutboxEntry> findPendingByTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    /**
+     * Claims an entry for the given lease unless another dispatcher holds it; returns 1 on success.
+     */
+    @Modifying
+    @Query("UPDATE CalendarOutboxEntry o SET o.claimedUntil = :until " +
+            "WHERE o.id = :id AND o.status = 'PENDING' AND (o.claimedUntil IS NULL OR o.claimedUntil < :now)")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    /**
+     * Releases claimed entries until the given time without counting an attempt.
+     */
+    @Modifying
+    @Query("UPDATE CalendarOutboxEntry o SET o.claimedUntil = NULL, o.nextAttemptAt = :nextAttemptAt WHERE o.id IN :ids")
+    int defer(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("DELETE FROM CalendarOutboxEntry o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT MIN(o.createdAt) FROM CalendarOutboxEntry o WHERE o.status = 'PENDING'")
+    Optional<LocalDateTime> findOldestPendingCreatedAt();
+
+    long countByStatus(CalendarOutboxEntry.Status status);
+}
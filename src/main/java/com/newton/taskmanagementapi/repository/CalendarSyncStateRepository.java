@@ -0,0 +1,9 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.model.CalendarSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CalendarSyncStateRepository extends JpaRepository<CalendarSyncState, Long> {
+}
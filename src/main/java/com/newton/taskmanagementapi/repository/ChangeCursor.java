@@ -0,0 +1,51 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.exception.BadRequestException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque sync position: the change sequence number and task id of the last change a client has
+ * seen. Bulk writes give many tasks the same sequence number, so the task id breaks ties.
+ */
+@Value
+public class ChangeCursor {
+
+    public static final ChangeCursor START = new ChangeCursor(-1, -1);
+
+    private static final String PREFIX = "seq:";
+
+    long sequence;
+    long taskId;
+
+    /**
+     * Returns the position encoded in the cursor, or {@link #START} when there is none.
+     */
+    public static ChangeCursor decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return START;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = decoded.startsWith(PREFIX) ? decoded.substring(PREFIX.length()).split(":") : new String[0];
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid sync cursor");
+            }
+            return new ChangeCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid sync cursor");
+        }
+    }
+
+    public boolean isBefore(long otherSequence, long otherTaskId) {
+        return sequence < otherSequence || (sequence == otherSequence && taskId < otherTaskId);
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + sequence + ":" + taskId).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,29 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * How a task's tags are compared with the tags of a filter.
+ */
+public enum TagMatch {
+    /** The task has at least one of the tags. */
+    ANY,
+    /** The task has every one of the tags. */
+    ALL,
+    /** The task has none of the tags. */
+    NONE;
+
+    public static TagMatch fromName(String name) {
+        if (name == null || name.isBlank()) {
+            return ANY;
+        }
+
+        try {
+            return TagMatch.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported tag match: " + name);
+        }
+    }
+}
@@ -2,25 +2,40 @@ package com.newton.taskmanagementapi.repository;
 
 import com.newton.taskmanagementapi.model.Tag;
 import com.newton.taskmanagementapi.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TagRepository extends JpaRepository<Tag, Long> {
+public interface TagRepository extends JpaRepository<Tag, Long>, TagRepositoryCustom {
 
     Optional<Tag> findByNameAndUser(String name, User user);
 
+    /**
+     * Cached in the query cache as the tag ids of the user; the tags themselves come from the
+     * entity cache. Any write to the tags table invalidates the cached lists.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Tag> findByUserOrderByNameAsc(User user);
 
     Optional<Tag> findByIdAndUser(Long id, User user);
 
-    @Query("SELECT t FROM Tag t LEFT JOIN FETCH t.tasks WHERE t.id = :id AND t.user = :user")
-    Optional<Tag> findByIdAndUserWithTasks(Long id, User user);
+    boolean existsByIdAndUser(Long id, User user);
 
     Boolean existsByNameAndUser(String name, User user);
+
+    List<Tag> findByUserAndNameIn(User user, Collection<String> names);
+
+    @Query("SELECT tag.id AS tagId, COUNT(t.id) AS taskCount FROM Tag tag JOIN tag.tasks t " +
+            "WHERE tag IN :tags GROUP BY tag.id")
+    List<TagTaskCount> countTasksByTags(@Param("tags") Collection<Tag> tags);
 }
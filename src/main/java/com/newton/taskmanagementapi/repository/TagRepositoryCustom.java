@@ -0,0 +1,13 @@
+package com.newton.taskmanagementapi.repository;
+
+import java.util.Collection;
+
+public interface TagRepositoryCustom {
+
+    /**
+     * Inserts a tag for each name the user does not have yet, in one multi-row statement per chunk.
+     * Names another transaction inserts concurrently are skipped instead of failing on the unique
+     * constraint. Returns the number of tags inserted.
+     */
+    int insertMissing(Long userId, Collection<String> names);
+}
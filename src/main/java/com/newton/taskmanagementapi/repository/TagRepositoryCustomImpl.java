@@ -0,0 +1,52 @@
+package com.newton.taskmanagementapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class TagRepositoryCustomImpl implements TagRepositoryCustom {
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Ids are drawn straight from {@code tags_seq}. Every call to it reserves a whole block of the
+     * pooled optimizer, so these ids never collide with ids Hibernate hands out, at the cost of gaps.
+     * The statements are synchronized on the tags table, so the cached tag lists are invalidated
+     * and the cache regions of unrelated tables are left alone.
+     */
+    @Override
+    public int insertMissing(Long userId, Collection<String> names) {
+        List<String> rows = new ArrayList<>(names);
+        LocalDateTime now = LocalDateTime.now();
+        int inserted = 0;
+
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<String> chunk = rows.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, rows.size()));
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                values.add("(nextval('tags_seq'), :name" + i + ", :userId, :now, :now)");
+            }
+
+            Query query = entityManager.createNativeQuery(
+                    "INSERT INTO tags (id, name, user_id, created_at, updated_at) VALUES " +
+                            String.join(", ", values) + " ON CONFLICT DO NOTHING");
+            query.unwrap(NativeQuery.class).addSynchronizedQuerySpace("tags");
+            for (int i = 0; i < chunk.size(); i++) {
+                query.setParameter("name" + i, chunk.get(i));
+            }
+            query.setParameter("userId", userId);
+            query.setParameter("now", now);
+            inserted += query.executeUpdate();
+        }
+        return inserted;
+    }
+}
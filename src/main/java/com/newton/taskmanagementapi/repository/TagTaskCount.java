@@ -0,0 +1,8 @@
+package com.newton.taskmanagementapi.repository;
+
+public interface TagTaskCount {
+
+    Long getTagId();
+
+    Long getTaskCount();
+}
@@ -0,0 +1,78 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newton.taskmanagementapi.exception.BadRequestException;
+import com.newton.taskmanagementapi.model.Task;
+import lombok.Value;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Opaque keyset position: the sort it was issued for, the sort-key values of the last row
+ * returned and that row's id. Clients only ever see the encoded form.
+ */
+@Value
+public class TaskCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    String sort;
+    List<String> values;
+    Long id;
+
+    public static TaskCursor of(TaskSort sort, Task last) {
+        List<String> values = new ArrayList<>();
+        for (TaskSort.Key key : sort.getKeys()) {
+            values.add(Objects.toString(key.getField().getExtractor().apply(last), null));
+        }
+        return new TaskCursor(sort.toSpec(), values, last.getId());
+    }
+
+    /**
+     * Decodes a cursor previously issued for the same sort. Returns null for a missing cursor,
+     * which means the first page.
+     */
+    public static TaskCursor decode(String encoded, TaskSort sort) {
+        if (encoded == null || encoded.isBlank()) {
+            return null;
+        }
+
+        List<Object> parts;
+        try {
+            parts = MAPPER.readValue(Base64.getUrlDecoder().decode(encoded), new TypeReference<>() {
+            });
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+
+        if (parts.size() != sort.getKeys().size() + 2
+                || !sort.toSpec().equals(parts.get(0))
+                || !(parts.get(1) instanceof Number)) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+
+        List<String> values = new ArrayList<>();
+        for (Object value : parts.subList(2, parts.size())) {
+            values.add(value != null ? value.toString() : null);
+        }
+        return new TaskCursor(sort.toSpec(), values, ((Number) parts.get(1)).longValue());
+    }
+
+    public String encode() {
+        List<Object> parts = new ArrayList<>();
+        parts.add(sort);
+        parts.add(id);
+        parts.addAll(values);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(parts));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode cursor", e);
+        }
+    }
+}
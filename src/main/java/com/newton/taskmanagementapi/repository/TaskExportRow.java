@@ -0,0 +1,23 @@
+package com.newton.taskmanagementapi.repository;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the export query: a task joined with one of its tag names (null when untagged).
+ * Rows of the same task are adjacent because the query orders by task id.
+ */
+@Value
+public class TaskExportRow {
+
+    Long id;
+    String title;
+    String description;
+    LocalDateTime dueDate;
+    Boolean completed;
+    String googleEventId;
+    LocalDateTime createdAt;
+    LocalDateTime updatedAt;
+    String tagName;
+}
@@ -0,0 +1,25 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.model.User;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Collection;
+import java.util.List;
+
+@Value
+@Builder
+public class TaskPageQuery {
+
+    User user;
+    Boolean completed;
+    List<String> tagNames;
+    @Builder.Default
+    TagMatch tagMatch = TagMatch.ANY;
+    Collection<Long> taskIds;
+    Long tagId;
+    @Builder.Default
+    TaskSort sort = TaskSort.DEFAULT;
+    TaskCursor after;
+    int limit;
+}
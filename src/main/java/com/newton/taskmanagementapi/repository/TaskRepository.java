@@ -2,25 +2,117 @@ package com.newton.taskmanagementapi.repository;
 
 import com.newton.taskmanagementapi.model.Task;
 import com.newton.taskmanagementapi.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
 
-    List<Task> findByUserOrderByDueDateAsc(User user);
+    @EntityGraph(attributePaths = "tags")
+    Optional<Task> findByIdAndUser(Long id, User user);
 
-    List<Task> findByUserAndCompletedOrderByDueDateAsc(User user, Boolean completed);
+    @Query("SELECT t.updatedAt FROM Task t WHERE t.id = :id AND t.user = :user")
+    Optional<LocalDateTime> findUpdatedAtByIdAndUser(@Param("id") Long id, @Param("user") User user);
 
-    @Query("SELECT t FROM Task t JOIN t.tags tag WHERE t.user = :user AND tag.name IN :tagNames")
-    List<Task> findByUserAndTagNames(@Param("user") User user, @Param("tagNames") List<String> tagNames);
+    Optional<Task> findByGoogleEventId(String googleEventId);
 
-    Optional<Task> findByIdAndUser(Long id, User user);
+    List<Task> findByUserIdAndGoogleEventIdIn(Long userId, Collection<String> googleEventIds);
 
-    Optional<Task> findByGoogleEventId(String googleEventId);
+    List<Task> findByUserAndIdIn(User user, Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "tags")
+    List<Task> findWithTagsByUserAndIdIn(User user, Collection<Long> ids);
+
+    long countByUserAndIdIn(User user, Collection<Long> ids);
+
+    List<Task> findByUserAndIdInAndGoogleEventIdIsNotNull(User user, Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Task t SET t.completed = true, t.updatedAt = :now, t.changeSeq = :seq " +
+            "WHERE t.user = :user AND t.id IN :ids")
+    int completeAll(@Param("user") User user, @Param("ids") Collection<Long> ids,
+                    @Param("seq") long seq, @Param("now") LocalDateTime now);
+
+    /**
+     * Stores the id of the calendar event created for a task that has none yet, with the
+     * fingerprint it was created from. Returns 0 if the task no longer exists.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.googleEventId = :eventId, t.calendarHash = :hash, t.updatedAt = :now, t.changeSeq = :seq " +
+            "WHERE t.id = :id AND t.googleEventId IS NULL")
+    int assignCalendarEvent(@Param("id") Long id, @Param("eventId") String eventId, @Param("hash") String hash,
+                            @Param("seq") long seq, @Param("now") LocalDateTime now);
+
+    /**
+     * Stores the fingerprint the task's event was last written with, as long as the task still
+     * has that event. Clients never see the fingerprint, so the task's change sequence stays.
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.calendarHash = :hash WHERE t.id = :id AND t.googleEventId = :eventId")
+    int recordCalendarHash(@Param("id") Long id, @Param("eventId") String eventId, @Param("hash") String hash);
+
+    /**
+     * The user's tasks that have, or should have, a calendar event, in id order after the given id.
+     */
+    @Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.id > :afterId " +
+            "AND (t.dueDate IS NOT NULL OR t.googleEventId IS NOT NULL) ORDER BY t.id")
+    List<Task> findCalendarTasks(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_tags WHERE task_id IN (:ids)", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tags"))
+    int deleteTagLinks(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Task t WHERE t.user = :user AND t.id IN :ids")
+    int deleteByUserAndIds(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Tasks whose latest write comes after the given (sequence, id) position, in change order.
+     */
+    @Query("SELECT t FROM Task t WHERE t.user = :user " +
+            "AND (t.changeSeq > :seq OR (t.changeSeq = :seq AND t.id > :id)) ORDER BY t.changeSeq, t.id")
+    List<Task> findChangesAfter(@Param("user") User user, @Param("seq") long seq, @Param("id") long id,
+                                Pageable pageable);
+
+    /**
+     * The searchable text of every task of the user, used to build the search index.
+     */
+    @Query("SELECT new com.newton.taskmanagementapi.repository.TaskSearchRow(t.id, t.title, t.description) " +
+            "FROM Task t WHERE t.user.id = :userId")
+    List<TaskSearchRow> findSearchRows(@Param("userId") Long userId);
+
+    /**
+     * Every task of the user paired with each of its tags, used to build the tag index.
+     */
+    @Query("SELECT t.id AS taskId, tag.id AS tagId FROM Task t LEFT JOIN t.tags tag WHERE t.user.id = :userId")
+    List<TaskTagLink> findTaskTagLinks(@Param("userId") Long userId);
+
+    /**
+     * Streams every task of the user as flat projection rows. Must be consumed inside a
+     * transaction; the fetch size lets the driver use a server-side cursor instead of
+     * buffering the whole result.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.newton.taskmanagementapi.repository.TaskExportRow(" +
+            "t.id, t.title, t.description, t.dueDate, t.completed, t.googleEventId, t.createdAt, t.updatedAt, tag.name) " +
+            "FROM Task t LEFT JOIN t.tags tag WHERE t.user.id = :userId ORDER BY t.id")
+    Stream<TaskExportRow> streamExportRows(@Param("userId") Long userId);
 }
\ No newline at end of file
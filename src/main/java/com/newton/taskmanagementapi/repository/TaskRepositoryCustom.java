@@ -0,0 +1,14 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.model.Task;
+
+import java.util.List;
+
+public interface TaskRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} tasks positioned after the query's cursor. Uses seek predicates
+     * on the sort keys rather than OFFSET, so the cost of a page does not grow with its depth.
+     */
+    List<Task> findPage(TaskPageQuery query);
+}
@@ -0,0 +1,120 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.model.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Task> findPage(TaskPageQuery query) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT t FROM Task t WHERE t.user = :user");
+        parameters.put("user", query.getUser());
+
+        if (query.getCompleted() != null) {
+            jpql.append(" AND t.completed = :completed");
+            parameters.put("completed", query.getCompleted());
+        }
+
+        if (query.getTagNames() != null && !query.getTagNames().isEmpty()) {
+            jpql.append(" AND ").append(tagPredicate(query.getTagMatch()));
+            parameters.put("tagNames", query.getTagNames());
+            if (query.getTagMatch() == TagMatch.ALL) {
+                parameters.put("tagCount", query.getTagNames().stream().distinct().count());
+            }
+        }
+
+        if (query.getTaskIds() != null) {
+            jpql.append(" AND t.id IN :taskIds");
+            parameters.put("taskIds", query.getTaskIds());
+        }
+
+        if (query.getTagId() != null) {
+            jpql.append(" AND EXISTS (SELECT 1 FROM t.tags tag WHERE tag.id = :tagId)");
+            parameters.put("tagId", query.getTagId());
+        }
+
+        if (query.getAfter() != null) {
+            jpql.append(" AND (").append(seekPredicate(query.getSort(), query.getAfter(), parameters)).append(")");
+        }
+
+        jpql.append(" ORDER BY ").append(orderBy(query.getSort()));
+
+        TypedQuery<Task> typedQuery = entityManager.createQuery(jpql.toString(), Task.class);
+        parameters.forEach(typedQuery::setParameter);
+        typedQuery.setMaxResults(query.getLimit());
+        return typedQuery.getResultList();
+    }
+
+    private String tagPredicate(TagMatch match) {
+        return switch (match) {
+            case ANY -> "EXISTS (SELECT 1 FROM t.tags tag WHERE tag.name IN :tagNames)";
+            case ALL -> "(SELECT COUNT(DISTINCT tag.name) FROM t.tags tag WHERE tag.name IN :tagNames) = :tagCount";
+            case NONE -> "NOT EXISTS (SELECT 1 FROM t.tags tag WHERE tag.name IN :tagNames)";
+        };
+    }
+
+    /**
+     * Expands the row comparison {@code (k1, ..., kn, id) > (v1, ..., vn, lastId)} into
+     * {@code k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...}, honouring per-key direction and nulls last.
+     */
+    private String seekPredicate(TaskSort sort, TaskCursor cursor, Map<String, Object> parameters) {
+        List<String> disjuncts = new ArrayList<>();
+        List<String> equalities = new ArrayList<>();
+
+        for (int i = 0; i < sort.getKeys().size(); i++) {
+            TaskSort.Key key = sort.getKeys().get(i);
+            String path = "t." + key.getField().getProperty();
+            String parameter = "seek" + i;
+            Object value = key.getField().parseValue(cursor.getValues().get(i));
+
+            if (value != null) {
+                String operator = key.isAscending() ? ">" : "<";
+                String after = path + " " + operator + " :" + parameter;
+                if (key.getField().isNullable()) {
+                    after = "(" + after + " OR " + path + " IS NULL)";
+                }
+                disjuncts.add(conjunction(equalities, after));
+                equalities.add(path + " = :" + parameter);
+                parameters.put(parameter, value);
+            } else {
+                // Nulls sort last, so nothing sorts after a null on this key except by later keys
+                equalities.add(path + " IS NULL");
+            }
+        }
+
+        String idOperator = sort.isIdAscending() ? ">" : "<";
+        disjuncts.add(conjunction(equalities, "t.id " + idOperator + " :seekId"));
+        parameters.put("seekId", cursor.getId());
+
+        return disjuncts.stream()
+                .map(disjunct -> "(" + disjunct + ")")
+                .collect(Collectors.joining(" OR "));
+    }
+
+    private String conjunction(List<String> equalities, String last) {
+        List<String> terms = new ArrayList<>(equalities);
+        terms.add(last);
+        return String.join(" AND ", terms);
+    }
+
+    private String orderBy(TaskSort sort) {
+        List<String> terms = new ArrayList<>();
+        for (TaskSort.Key key : sort.getKeys()) {
+            terms.add("t." + key.getField().getProperty() + (key.isAscending() ? " ASC" : " DESC") + " NULLS LAST");
+        }
+        terms.add("t.id" + (sort.isIdAscending() ? " ASC" : " DESC"));
+        return String.join(", ", terms);
+    }
+}
@@ -0,0 +1,14 @@
+package com.newton.taskmanagementapi.repository;
+
+import lombok.Value;
+
+/**
+ * The searchable text of a task, read when a user's search index is built.
+ */
+@Value
+public class TaskSearchRow {
+
+    Long id;
+    String title;
+    String description;
+}
@@ -0,0 +1,106 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.exception.BadRequestException;
+import com.newton.taskmanagementapi.model.Task;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ordering for keyset pagination over tasks. The task id is always appended as the final
+ * tie-breaker so that every row has a unique position in the ordering. Nulls sort last.
+ */
+@Value
+public class TaskSort {
+
+    public static final TaskSort DEFAULT = new TaskSort(List.of(new Key(Field.DUE_DATE, true)));
+
+    List<Key> keys;
+
+    /**
+     * Parses specs such as {@code dueDate:asc} or {@code title:desc}. The direction defaults to
+     * ascending.
+     */
+    public static TaskSort parse(List<String> specs) {
+        if (specs == null || specs.isEmpty()) {
+            return DEFAULT;
+        }
+
+        List<Key> keys = new ArrayList<>();
+        for (String spec : specs) {
+            String[] parts = spec.trim().split(":");
+            Field field = Field.fromProperty(parts[0]);
+            boolean ascending = parts.length < 2 || parseDirection(parts[1]);
+            if (keys.stream().anyMatch(key -> key.getField() == field)) {
+                throw new BadRequestException("Duplicate sort key: " + parts[0]);
+            }
+            keys.add(new Key(field, ascending));
+        }
+        return new TaskSort(List.copyOf(keys));
+    }
+
+    public boolean isIdAscending() {
+        return keys.get(keys.size() - 1).isAscending();
+    }
+
+    public String toSpec() {
+        return keys.stream()
+                .map(key -> key.getField().getProperty() + ":" + (key.isAscending() ? "asc" : "desc"))
+                .collect(Collectors.joining(","));
+    }
+
+    private static boolean parseDirection(String direction) {
+        return switch (direction.toLowerCase(Locale.ROOT)) {
+            case "asc" -> true;
+            case "desc" -> false;
+            default -> throw new BadRequestException("Invalid sort direction: " + direction);
+        };
+    }
+
+    @Value
+    public static class Key {
+        Field field;
+        boolean ascending;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Field {
+        DUE_DATE("dueDate", true, Task::getDueDate, LocalDateTime::parse),
+        CREATED_AT("createdAt", false, Task::getCreatedAt, LocalDateTime::parse),
+        UPDATED_AT("updatedAt", true, Task::getUpdatedAt, LocalDateTime::parse),
+        TITLE("title", false, Task::getTitle, value -> value);
+
+        private final String property;
+        private final boolean nullable;
+        private final Function<Task, Object> extractor;
+        private final Function<String, Object> parser;
+
+        public Object parseValue(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return parser.apply(value);
+            } catch (DateTimeParseException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        static Field fromProperty(String property) {
+            return Arrays.stream(values())
+                    .filter(field -> field.property.equals(property))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("Unsupported sort key: " + property));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.newton.taskmanagementapi.repository;
+
+public interface TaskTagLink {
+
+    Long getTaskId();
+
+    /**
+     * Null for a task without tags.
+     */
+    Long getTagId();
+}
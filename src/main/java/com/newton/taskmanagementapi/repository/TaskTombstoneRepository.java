@@ -0,0 +1,37 @@
+package com.newton.taskmanagementapi.repository;
+
+import com.newton.taskmanagementapi.model.TaskTombstone;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    @Query("SELECT b FROM TaskTombstone b WHERE b.userId = :userId " +
+            "AND (b.changeSeq > :seq OR (b.changeSeq = :seq AND b.taskId > :taskId)) ORDER BY b.changeSeq, b.taskId")
+    List<TaskTombstone> findChangesAfter(@Param("userId") Long userId, @Param("seq") long seq,
+                                         @Param("taskId") long taskId, Pageable pageable);
+
+    /**
+     * Records tombstones for the given tasks with one set-based insert; must run before the
+     * tasks themselves are deleted.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO task_tombstones (user_id, task_id, change_seq, deleted_at) " +
+            "SELECT t.user_id, t.id, :seq, :now FROM tasks t WHERE t.user_id = :userId AND t.id IN (:ids)",
+            nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "task_tombstones"))
+    int insertForTasks(@Param("userId") Long userId, @Param("ids") Collection<Long> ids,
+                       @Param("seq") long seq, @Param("now") LocalDateTime now);
+}
@@ -1,9 +1,17 @@
 package com.newton.taskmanagementapi.repository;
 
 import com.newton.taskmanagementapi.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +22,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByGoogleId(String googleId);
 
     Boolean existsByEmail(String email);
+
+    @Query("SELECT u.securityVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findSecurityVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE User u SET u.securityVersion = u.securityVersion + 1 WHERE u.id = :id")
+    int incrementSecurityVersion(@Param("id") Long id);
+
+    @Query("SELECT u.dataVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findDataVersionById(@Param("id") Long id);
+
+    /**
+     * Native and synchronized on a query space of its own, so that Hibernate leaves the cached
+     * users alone; an update query on User would evict the whole region on every write. The
+     * cached copies keep a stale data version, which is only ever read through
+     * {@link #findDataVersionById}.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE users SET data_version = data_version + 1 WHERE id = :id", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_data_versions"))
+    int incrementDataVersion(@Param("id") Long id);
+
+    /**
+     * Users who connected their Google account, in id order after the given id.
+     */
+    @Query("SELECT u FROM User u WHERE u.googleAccessToken IS NOT NULL AND u.id > :afterId ORDER BY u.id")
+    List<User> findWithCalendarAccess(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -2,6 +2,8 @@ package com.newton.taskmanagementapi.security;
 
 import com.newton.taskmanagementapi.model.User;
 import com.newton.taskmanagementapi.repository.UserRepository;
+import com.newton.taskmanagementapi.service.GoogleTokenRefresher;
+import com.newton.taskmanagementapi.service.UserCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
@@ -19,6 +21,8 @@ import java.util.Optional;
 public class CustomOAuth2UserService extends DefaultOAuth2UserService {
 
     private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
+    private final GoogleTokenRefresher googleTokenRefresher;
 
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
@@ -39,6 +43,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
         } else {
             user = registerNewUser(oAuth2UserInfo, userRequest);
         }
+        googleTokenRefresher.tokenIssued(user);
 
         return UserPrincipal.create(user, oAuth2User.getAttributes());
     }
@@ -59,7 +64,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
                 ))
                 .build();
 
-        return userRepository.save(user);
+        return userCacheService.save(user);
     }
 
     private User updateExistingUser(User existingUser, OAuth2UserInfo oAuth2UserInfo, OAuth2UserRequest userRequest) {
@@ -78,7 +83,7 @@ public class CustomOAuth2UserService extends DefaultOAuth2UserService {
                                 userRequest.getAccessToken().getIssuedAt().getEpochSecond() : 3600
         ));
 
-        return userRepository.save(existingUser);
+        return userCacheService.save(existingUser);
     }
 
     private String extractRefreshToken(OAuth2UserRequest userRequest) {
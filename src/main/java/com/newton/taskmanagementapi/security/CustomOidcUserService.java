@@ -3,6 +3,8 @@ package com.newton.taskmanagementapi.security;
 
 import com.newton.taskmanagementapi.model.User;
 import com.newton.taskmanagementapi.repository.UserRepository;
+import com.newton.taskmanagementapi.service.GoogleTokenRefresher;
+import com.newton.taskmanagementapi.service.UserCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
@@ -20,6 +22,8 @@ import java.util.Optional;
 public class CustomOidcUserService extends OidcUserService {
 
     private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
+    private final GoogleTokenRefresher googleTokenRefresher;
 
     @Override
     public OidcUser loadUser(OidcUserRequest userRequest) throws OAuth2AuthenticationException {
@@ -40,6 +44,7 @@ public class CustomOidcUserService extends OidcUserService {
         } else {
             user = registerNewUser(oAuth2UserInfo, userRequest);
         }
+        googleTokenRefresher.tokenIssued(user);
 
         return new CustomOidcUser(UserPrincipal.create(user, oidcUser.getAttributes()), oidcUser);
     }
@@ -60,7 +65,7 @@ public class CustomOidcUserService extends OidcUserService {
                 ))
                 .build();
 
-        return userRepository.save(user);
+        return userCacheService.save(user);
     }
 
     private User updateExistingUser(User existingUser, OAuth2UserInfo oAuth2UserInfo, OidcUserRequest userRequest) {
@@ -79,7 +84,7 @@ public class CustomOidcUserService extends OidcUserService {
                                 userRequest.getAccessToken().getIssuedAt().getEpochSecond() : 3600
         ));
 
-        return userRepository.save(existingUser);
+        return userCacheService.save(existingUser);
     }
 
     private String extractRefreshToken(OidcUserRequest userRequest) {
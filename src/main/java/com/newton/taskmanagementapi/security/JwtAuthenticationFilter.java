@@ -1,10 +1,11 @@
 package com.newton.taskmanagementapi.security;
 
-import com.newton.taskmanagementapi.model.User;
-import com.newton.taskmanagementapi.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import jakarta.servlet.FilterChain;
@@ -17,14 +18,52 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final List<String> UNAUTHENTICATED_PATHS = List.of(
+            "/favicon.ico",
+            "/swagger-ui/**",
+            "/v3/api-docs/**",
+            "/api-docs/**",
+            "/*.png",
+            "/*.gif",
+            "/*.svg",
+            "/*.jpg",
+            "/*.html",
+            "/*.css",
+            "/*.js"
+    );
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
     private final JwtUtil jwtUtil;
-    private final UserRepository userRepository;
+    private final JwtTokenCache jwtTokenCache;
+    private final TokenVersionService tokenVersionService;
+    private final Timer cachedVerifications;
+    private final Timer validVerifications;
+    private final Timer invalidVerifications;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, JwtTokenCache jwtTokenCache,
+                                   TokenVersionService tokenVersionService, MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.jwtTokenCache = jwtTokenCache;
+        this.tokenVersionService = tokenVersionService;
+        this.cachedVerifications = verifications(meterRegistry, "cached");
+        this.validVerifications = verifications(meterRegistry, "valid");
+        this.invalidVerifications = verifications(meterRegistry, "invalid");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return UNAUTHENTICATED_PATHS.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,18 +72,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
-                String email = jwtUtil.getEmailFromToken(jwt);
+            if (StringUtils.hasText(jwt)) {
+                Optional<UserPrincipal> principal = resolveClaims(jwt)
+                        .flatMap(jwtUtil::getPrincipalFromClaims)
+                        .filter(tokenVersionService::isCurrent);
 
-                User user = userRepository.findByEmail(email)
-                        .orElseThrow(() -> new RuntimeException("User not found"));
+                if (principal.isPresent()) {
+                    UserPrincipal userPrincipal = principal.get();
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                UserPrincipal userPrincipal = UserPrincipal.create(user);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
@@ -53,6 +93,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Timed by result: {@code cached} when the token was verified before, else whether its
+     * signature check passed.
+     */
+    private Optional<Claims> resolveClaims(String jwt) {
+        long start = System.nanoTime();
+        Optional<Claims> cached = jwtTokenCache.get(jwt);
+        if (cached.isPresent()) {
+            cachedVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+
+        Optional<Claims> verified = jwtUtil.verifyAndGetClaims(jwt);
+        verified.ifPresent(claims -> jwtTokenCache.put(jwt, claims));
+        (verified.isPresent() ? validVerifications : invalidVerifications)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return verified;
+    }
+
+    private static Timer verifications(MeterRegistry registry, String result) {
+        return Timer.builder("jwt.verification")
+                .description("Time to resolve a bearer token's claims, by result")
+                .tag("result", result)
+                .register(registry);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -60,4 +126,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.newton.taskmanagementapi.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -9,11 +10,16 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 @Slf4j
 public class JwtUtil {
 
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String NAME_CLAIM = "name";
+    private static final String SECURITY_VERSION_CLAIM = "ver";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
@@ -23,48 +29,48 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
     }
 
-    public String generateToken(String email) {
-        return generateToken(email, jwtExpirationMs);
+    public String generateToken(UserPrincipal principal) {
+        return generateToken(principal, jwtExpirationMs);
     }
 
-    public String generateRefreshToken(String email) {
-        return generateToken(email, refreshExpirationMs);
+    public String generateRefreshToken(UserPrincipal principal) {
+        return generateToken(principal, refreshExpirationMs);
     }
 
-    private String generateToken(String email, Long expiration) {
+    private String generateToken(UserPrincipal principal, Long expiration) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
-                .subject(email)
+                .subject(principal.getEmail())
+                .claim(USER_ID_CLAIM, principal.getId())
+                .claim(NAME_CLAIM, principal.getName())
+                .claim(SECURITY_VERSION_CLAIM, principal.getSecurityVersion())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
-    }
-
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the signature and expiry of the token and returns its claims in a single parse.
+     * Returns empty when the token is not valid.
+     */
+    public Optional<Claims> verifyAndGetClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        }catch (SecurityException ex) {
+            return Optional.of(jwtParser.parseSignedClaims(token).getPayload());
+        } catch (SecurityException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token");
@@ -72,9 +78,30 @@ public class JwtUtil {
             log.error("Expired JWT token");
         } catch (UnsupportedJwtException ex) {
             log.error("Unsupported JWT token");
+        } catch (JwtException ex) {
+            log.error("JWT verification failed");
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return Optional.empty();
+    }
+
+    /**
+     * Builds the principal straight from verified claims, without touching the users table.
+     * Returns empty for tokens issued before the user id and security version were embedded.
+     */
+    public Optional<UserPrincipal> getPrincipalFromClaims(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        Integer securityVersion = claims.get(SECURITY_VERSION_CLAIM, Integer.class);
+        if (userId == null || securityVersion == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(UserPrincipal.create(
+                userId,
+                claims.getSubject(),
+                claims.get(NAME_CLAIM, String.class),
+                securityVersion
+        ));
     }
 }
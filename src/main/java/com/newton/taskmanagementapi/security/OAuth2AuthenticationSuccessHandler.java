@@ -53,8 +53,8 @@ public class OAuth2AuthenticationSuccessHandler extends SimpleUrlAuthenticationS
             throw new IllegalStateException("Unexpected principal type");
         }
 
-        String accessToken = jwtUtil.generateToken(userPrincipal.getEmail());
-        String refreshToken = jwtUtil.generateRefreshToken(userPrincipal.getEmail());
+        String accessToken = jwtUtil.generateToken(userPrincipal);
+        String refreshToken = jwtUtil.generateRefreshToken(userPrincipal);
 
         return UriComponentsBuilder.fromUriString(redirectUri)
                 .queryParam("token", accessToken)
@@ -0,0 +1,61 @@
+package com.newton.taskmanagementapi.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import com.newton.taskmanagementapi.service.UserCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Tracks the current security version of each user. Tokens carry the version they were issued
+ * with; bumping the version revokes every token issued before it.
+ */
+@Service
+@Slf4j
+public class TokenVersionService {
+
+    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
+    private final LoadingCache<Long, Integer> currentVersions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               UserCacheService userCacheService,
+                               @Value("${jwt.version-cache.max-size:10000}") long maxSize,
+                               @Value("${jwt.version-cache.ttl:60s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
+        this.currentVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build(userId -> userRepository.findSecurityVersionById(userId).orElse(null));
+    }
+
+    public boolean isCurrent(UserPrincipal principal) {
+        Integer currentVersion = currentVersions.get(principal.getId());
+        return currentVersion != null && Objects.equals(currentVersion, principal.getSecurityVersion());
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        userRepository.incrementSecurityVersion(userId);
+        currentVersions.invalidate(userId);
+        userCacheService.evictById(userId);
+        // Invalidate again once committed, in case another request re-cached the old version meanwhile
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                currentVersions.invalidate(userId);
+                userCacheService.evictById(userId);
+            }
+        });
+        log.info("Revoked all tokens for user {}", userId);
+    }
+}
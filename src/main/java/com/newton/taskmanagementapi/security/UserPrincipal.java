@@ -19,14 +19,20 @@ public class UserPrincipal implements OAuth2User, UserDetails {
     private Long id;
     private String email;
     private String name;
+    private Integer securityVersion;
     private Collection<? extends GrantedAuthority> authorities;
     private Map<String, Object> attributes;
 
     public static UserPrincipal create(User user) {
+        return create(user.getId(), user.getEmail(), user.getName(), user.getSecurityVersion());
+    }
+
+    public static UserPrincipal create(Long id, String email, String name, Integer securityVersion) {
         return new UserPrincipal(
-                user.getId(),
-                user.getEmail(),
-                user.getName(),
+                id,
+                email,
+                name,
+                securityVersion,
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")),
                 null
         );
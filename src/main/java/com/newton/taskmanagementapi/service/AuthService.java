@@ -3,9 +3,9 @@ package com.newton.taskmanagementapi.service;
 import com.newton.taskmanagementapi.dto.AuthResponse;
 import com.newton.taskmanagementapi.dto.UserResponse;
 import com.newton.taskmanagementapi.exception.UnauthorizedException;
-import com.newton.taskmanagementapi.model.User;
-import com.newton.taskmanagementapi.repository.UserRepository;
 import com.newton.taskmanagementapi.security.JwtUtil;
+import com.newton.taskmanagementapi.security.TokenVersionService;
+import com.newton.taskmanagementapi.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,21 +16,26 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class AuthService {
 
-    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
     private final JwtUtil jwtUtil;
+    private final TokenVersionService tokenVersionService;
 
     @Transactional(readOnly = true)
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtUtil.validateToken(refreshToken)) {
-            throw new UnauthorizedException("Invalid refresh token");
-        }
+        UserPrincipal principal = jwtUtil.verifyAndGetClaims(refreshToken)
+                .flatMap(jwtUtil::getPrincipalFromClaims)
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
 
-        String email = jwtUtil.getEmailFromToken(refreshToken);
-        User user = userRepository.findByEmail(email)
+        CachedUser user = userCacheService.findById(principal.getId())
                 .orElseThrow(() -> new UnauthorizedException("User not found"));
 
-        String newAccessToken = jwtUtil.generateToken(user.getEmail());
-        String newRefreshToken = jwtUtil.generateRefreshToken(user.getEmail());
+        if (!user.securityVersion().equals(principal.getSecurityVersion())) {
+            throw new UnauthorizedException("Refresh token has been revoked");
+        }
+
+        UserPrincipal currentPrincipal = UserPrincipal.create(user.id(), user.email(), user.name(), user.securityVersion());
+        String newAccessToken = jwtUtil.generateToken(currentPrincipal);
+        String newRefreshToken = jwtUtil.generateRefreshToken(currentPrincipal);
 
         return AuthResponse.builder()
                 .accessToken(newAccessToken)
@@ -41,18 +46,26 @@ public class AuthService {
                 .build();
     }
 
+    @Transactional
+    public void revokeTokens(Long userId) {
+        tokenVersionService.revokeAll(userId);
+    }
+
     @Transactional(readOnly = true)
-    public UserResponse getCurrentUser(User user) {
+    public UserResponse getCurrentUser(Long userId) {
+        CachedUser user = userCacheService.findById(userId)
+                .orElseThrow(() -> new UnauthorizedException("User not found"));
+
         return mapToUserResponse(user);
     }
 
-    private UserResponse mapToUserResponse(User user) {
+    private UserResponse mapToUserResponse(CachedUser user) {
         return UserResponse.builder()
-                .id(user.getId())
-                .email(user.getEmail())
-                .name(user.getName())
-                .profilePictureUrl(user.getProfilePictureUrl())
-                .provider(user.getAuthProvider().name())
+                .id(user.id())
+                .email(user.email())
+                .name(user.name())
+                .profilePictureUrl(user.profilePictureUrl())
+                .provider(user.authProvider().name())
                 .build();
     }
 }
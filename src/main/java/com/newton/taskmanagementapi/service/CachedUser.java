@@ -0,0 +1,22 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.model.User;
+
+/**
+ * Immutable copy of the user fields that {@link UserCacheService} serves. Unlike the entity it is
+ * safe to share between threads and does not outlive the persistence context it was read in;
+ * code that needs to change the user loads the entity within its own transaction.
+ */
+public record CachedUser(Long id,
+                         String email,
+                         String name,
+                         String googleId,
+                         String profilePictureUrl,
+                         User.AuthProvider authProvider,
+                         Integer securityVersion) {
+
+    public static CachedUser of(User user) {
+        return new CachedUser(user.getId(), user.getEmail(), user.getName(), user.getGoogleId(),
+                user.getProfilePictureUrl(), user.getAuthProvider(), user.getSecurityVersion());
+    }
+}
@@ -0,0 +1,203 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.exception.CalendarUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Admits Calendar calls before they are made, so that calls fail fast instead of piling up
+ * threads when Google throttles or struggles. A call needs permits from a token bucket for its
+ * user and from one shared by all users; the user buckets are striped by user id, so memory stays
+ * bounded and users sharing a stripe share its budget. When Google throttles a single user, only
+ * that user's stripe backs off, for {@code user.backoff}. A circuit breaker opens after
+ * {@code failure-threshold} consecutive calls that Google throttled project-wide, failed or timed
+ * out, refuses every call for {@code open-duration}, and then lets a single trial call decide
+ * whether to close again. Everything is lock-free.
+ */
+@Component
+@Slf4j
+public class CalendarCallGuard {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final TokenBucket[] userBuckets;
+    // Per stripe, the System.nanoTime() until which its users' calls are refused
+    private final AtomicLongArray userBackoffUntil;
+    private final Duration userBackoff;
+    private final TokenBucket globalBucket;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    private final Counter userRejections;
+    private final Counter globalRejections;
+    private final Counter breakerRejections;
+
+    public CalendarCallGuard(MeterRegistry meterRegistry,
+                             @Value("${google.calendar.rate-limit.stripes:1024}") int stripes,
+                             @Value("${google.calendar.rate-limit.user.capacity:100}") long userCapacity,
+                             @Value("${google.calendar.rate-limit.user.per-second:10}") double userPerSecond,
+                             @Value("${google.calendar.rate-limit.user.backoff:10s}") Duration userBackoff,
+                             @Value("${google.calendar.rate-limit.global.capacity:1000}") long globalCapacity,
+                             @Value("${google.calendar.rate-limit.global.per-second:500}") double globalPerSecond,
+                             @Value("${google.calendar.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                             @Value("${google.calendar.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        long now = System.nanoTime();
+        this.userBuckets = new TokenBucket[stripes];
+        this.userBackoffUntil = new AtomicLongArray(stripes);
+        for (int i = 0; i < stripes; i++) {
+            userBuckets[i] = new TokenBucket(userCapacity, userPerSecond, now);
+            userBackoffUntil.set(i, now);
+        }
+        this.userBackoff = userBackoff;
+        this.globalBucket = new TokenBucket(globalCapacity, globalPerSecond, now);
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+
+        Gauge.builder("calendar.limiter.available", globalBucket, bucket -> bucket.available(System.nanoTime()))
+                .description("Calendar call permits left in the global bucket")
+                .register(meterRegistry);
+        Gauge.builder("calendar.breaker.state", state, current -> current.get().ordinal())
+                .description("Calendar circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        this.userRejections = rejections(meterRegistry, "user");
+        this.globalRejections = rejections(meterRegistry, "global");
+        this.breakerRejections = rejections(meterRegistry, "breaker");
+    }
+
+    /**
+     * Whether a call would currently get past the breaker; lets callers skip work up front.
+     */
+    public boolean isCallPermitted() {
+        return state.get() == State.CLOSED
+                || (state.get() == State.OPEN && System.nanoTime() - openedAt.get() >= openDuration.toNanos());
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Admits a call of the given number of requests for the user, or throws
+     * {@link CalendarUnavailableException}. Every admitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public void acquire(Long userId, int permits) {
+        long now = System.nanoTime();
+        admitThroughBreaker(now);
+
+        int stripe = stripe(userId);
+        long backoffRemaining = userBackoffUntil.get(stripe) - now;
+        if (backoffRemaining > 0) {
+            userRejections.increment();
+            releaseTrial();
+            throw new CalendarUnavailableException("Calendar calls of user " + userId + " are backing off",
+                    Duration.ofNanos(backoffRemaining));
+        }
+
+        TokenBucket userBucket = userBuckets[stripe];
+        if (!userBucket.tryAcquire(permits, now)) {
+            userRejections.increment();
+            releaseTrial();
+            throw new CalendarUnavailableException("Calendar rate limit of user " + userId + " reached",
+                    userBucket.timeUntil(permits, now));
+        }
+        if (!globalBucket.tryAcquire(permits, now)) {
+            userBucket.release(permits, now);
+            globalRejections.increment();
+            releaseTrial();
+            throw new CalendarUnavailableException("Global Calendar rate limit reached", globalBucket.timeUntil(permits, now));
+        }
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            log.info("Calendar circuit breaker closed");
+        }
+    }
+
+    /**
+     * Refuses the user's calls for a while after Google throttled them. This is the user's own
+     * quota running out, not a sign of trouble at Google, so it does not count against the breaker.
+     */
+    public void backOff(Long userId) {
+        long until = System.nanoTime() + userBackoff.toNanos();
+        userBackoffUntil.accumulateAndGet(stripe(userId), until, (current, next) -> next - current > 0 ? next : current);
+    }
+
+    /**
+     * Records a call that Google throttled project-wide, failed or did not answer in time.
+     */
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    private int stripe(Long userId) {
+        return Math.floorMod(Long.hashCode(userId), userBuckets.length);
+    }
+
+    private void admitThroughBreaker(long now) {
+        while (true) {
+            State current = state.get();
+            if (current == State.CLOSED) {
+                return;
+            }
+            long remaining = openDuration.toNanos() - (now - openedAt.get());
+            if (current == State.OPEN && remaining <= 0) {
+                // The first caller after the open period runs the trial call; the rest keep failing fast
+                if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                    return;
+                }
+                continue;
+            }
+            breakerRejections.increment();
+            throw new CalendarUnavailableException("Calendar circuit breaker is " + current.name().toLowerCase(),
+                    remaining > 0 ? Duration.ofNanos(remaining) : openDuration);
+        }
+    }
+
+    private void open() {
+        openedAt.set(System.nanoTime());
+        State previous = state.getAndSet(State.OPEN);
+        consecutiveFailures.set(0);
+        if (previous != State.OPEN) {
+            log.warn("Calendar circuit breaker opened for {}", openDuration);
+        }
+    }
+
+    /**
+     * A trial call refused by a rate limit never ran, so the next caller may try instead.
+     */
+    private void releaseTrial() {
+        if (state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+            openedAt.set(System.nanoTime() - openDuration.toNanos());
+        }
+    }
+
+    private static Counter rejections(MeterRegistry registry, String reason) {
+        return Counter.builder("calendar.calls.rejected")
+                .description("Calendar calls refused before they were made, by reason")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
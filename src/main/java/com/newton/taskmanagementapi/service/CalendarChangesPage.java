@@ -0,0 +1,12 @@
+package com.newton.taskmanagementapi.service;
+
+import com.google.api.services.calendar.model.Event;
+
+import java.util.List;
+
+/**
+ * One page of a calendar's changed events. The last page carries no page token but the sync
+ * token that lists the changes made after it.
+ */
+public record CalendarChangesPage(List<Event> events, String nextPageToken, String nextSyncToken) {
+}
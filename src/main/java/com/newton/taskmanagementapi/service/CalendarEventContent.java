@@ -0,0 +1,83 @@
+package com.newton.taskmanagementapi.service;
+
+import com.google.api.client.util.DateTime;
+import com.google.api.services.calendar.model.Event;
+import com.google.api.services.calendar.model.EventDateTime;
+import com.newton.taskmanagementapi.model.Task;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * The task fields read back from a calendar event, the reverse of how {@link GoogleCalenderService}
+ * renders a task: the summary is the title, the description ends with the status line, and the
+ * start is the due date. Fields the event leaves out keep the task's value.
+ */
+public record CalendarEventContent(String title, String description, LocalDateTime dueDate, Boolean completed) {
+
+    static final String STATUS_COMPLETED = "Status: Completed";
+    static final String STATUS_PENDING = "Status: Pending";
+
+    public static CalendarEventContent from(Event event) {
+        String text = Objects.toString(event.getDescription(), "");
+        Boolean completed = null;
+        if (text.endsWith(STATUS_COMPLETED)) {
+            completed = true;
+            text = text.substring(0, text.length() - STATUS_COMPLETED.length());
+        } else if (text.endsWith(STATUS_PENDING)) {
+            completed = false;
+            text = text.substring(0, text.length() - STATUS_PENDING.length());
+        }
+        if (completed != null && text.endsWith("\n\n")) {
+            text = text.substring(0, text.length() - 2);
+        }
+
+        String title = event.getSummary() == null || event.getSummary().isBlank() ? null : event.getSummary();
+        return new CalendarEventContent(title, text.isEmpty() ? null : text, dueDate(event.getStart()), completed);
+    }
+
+    /**
+     * Whether the task already renders this content. Due dates compare to the millisecond, the
+     * precision events are written with.
+     */
+    public boolean matches(Task task) {
+        return (title == null || title.equals(task.getTitle()))
+                && Objects.equals(description, task.getDescription())
+                && (dueDate == null || dueDate.equals(millis(task.getDueDate())))
+                && (completed == null || completed.equals(task.getCompleted()));
+    }
+
+    public void applyTo(Task task) {
+        if (title != null) {
+            task.setTitle(title);
+        }
+        task.setDescription(description);
+        if (dueDate != null && !dueDate.equals(millis(task.getDueDate()))) {
+            task.setDueDate(dueDate);
+        }
+        if (completed != null) {
+            task.setCompleted(completed);
+        }
+    }
+
+    private static LocalDateTime dueDate(EventDateTime start) {
+        if (start == null) {
+            return null;
+        }
+        if (start.getDateTime() != null) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(start.getDateTime().getValue()), ZoneId.systemDefault());
+        }
+        // All-day events carry a date only, which is due at its start
+        DateTime date = start.getDate();
+        return date == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getValue()), ZoneOffset.UTC)
+                .truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private static LocalDateTime millis(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,216 @@
+package com.newton.taskmanagementapi.service;
+
+import com.google.api.services.calendar.model.Event;
+import com.newton.taskmanagementapi.exception.SyncTokenExpiredException;
+import com.newton.taskmanagementapi.model.CalendarOutboxEntry;
+import com.newton.taskmanagementapi.model.CalendarSyncState;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.CalendarOutboxRepository;
+import com.newton.taskmanagementapi.repository.CalendarSyncStateRepository;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Brings edits made in Google Calendar back to the tasks. Each run lists only the events that
+ * changed since the user's stored sync token and applies every page of them in one transaction;
+ * the new token is stored once all pages are applied, so an interrupted run is repeated. When
+ * Google expires a token, the calendar is listed in full instead. Events are matched to tasks by
+ * event id, and only events whose content differs from the task are applied, so the echoes of
+ * our own writes change nothing. Tasks with local changes still queued in the outbox keep them;
+ * the queued write overwrites the event. An event deleted in Google unschedules its task.
+ */
+@Service
+@Slf4j
+public class CalendarInboundSync {
+
+    private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
+    private final CalendarOutboxRepository outboxRepository;
+    private final CalendarSyncStateRepository syncStateRepository;
+    private final DataVersionService dataVersionService;
+    private final TaskSearchIndex taskSearchIndex;
+    private final GoogleCalenderService googleCalendarService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ExecutorService executor;
+
+    private final boolean enabled;
+    private final int userPageSize;
+
+    public CalendarInboundSync(UserRepository userRepository,
+                               TaskRepository taskRepository,
+                               CalendarOutboxRepository outboxRepository,
+                               CalendarSyncStateRepository syncStateRepository,
+                               DataVersionService dataVersionService,
+                               TaskSearchIndex taskSearchIndex,
+                               GoogleCalenderService googleCalendarService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.calendar.inbound.enabled:true}") boolean enabled,
+                               @Value("${app.calendar.inbound.concurrency:4}") int concurrency,
+                               @Value("${app.calendar.inbound.user-page-size:500}") int userPageSize,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.userRepository = userRepository;
+        this.taskRepository = taskRepository;
+        this.outboxRepository = outboxRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.dataVersionService = dataVersionService;
+        this.taskSearchIndex = taskSearchIndex;
+        this.googleCalendarService = googleCalendarService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.executor = WorkerPools.fixed("calendar-inbound", concurrency, virtualThreads);
+        this.enabled = enabled;
+        this.userPageSize = userPageSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.calendar.inbound.poll-interval:1m}")
+    public void poll() {
+        if (enabled) {
+            syncAll();
+        }
+    }
+
+    /**
+     * Syncs every user who connected Google Calendar and returns how many tasks were updated.
+     */
+    public int syncAll() {
+        int updated = 0;
+        Long afterId = 0L;
+        List<User> users;
+        do {
+            users = userRepository.findWithCalendarAccess(afterId, PageRequest.of(0, userPageSize));
+            updated += users.stream()
+                    .map(user -> CompletableFuture.supplyAsync(() -> sync(user), executor)
+                            .exceptionally(e -> {
+                                // The token stays where it was, so the next run picks the changes up again
+                                log.warn("Failed to sync calendar changes of user {}", user.getId(), e);
+                                return 0;
+                            }))
+                    .collect(Collectors.toList()).stream()
+                    .mapToInt(CompletableFuture::join)
+                    .sum();
+            if (!users.isEmpty()) {
+                afterId = users.get(users.size() - 1).getId();
+            }
+        } while (users.size() == userPageSize);
+        return updated;
+    }
+
+    /**
+     * Applies the changes made to the user's calendar since the last run and returns how many
+     * tasks were updated.
+     */
+    public int sync(User user) {
+        CalendarSyncState state = syncStateRepository.findById(user.getId())
+                .orElseGet(() -> CalendarSyncState.builder().userId(user.getId()).build());
+        try {
+            return syncFrom(user, state, state.getSyncToken());
+        } catch (SyncTokenExpiredException e) {
+            log.info("Calendar sync token of user {} expired, syncing in full", user.getId());
+            return syncFrom(user, state, null);
+        }
+    }
+
+    private int syncFrom(User user, CalendarSyncState state, String syncToken) {
+        int updated = 0;
+        String pageToken = null;
+        CalendarChangesPage page;
+        do {
+            page = googleCalendarService.listChanges(user, syncToken, pageToken);
+            updated += apply(user.getId(), page.events());
+            pageToken = page.nextPageToken();
+        } while (pageToken != null);
+
+        state.setSyncToken(page.nextSyncToken());
+        state.setSyncedAt(LocalDateTime.now());
+        syncStateRepository.save(state);
+        return updated;
+    }
+
+    /**
+     * Applies one page of changed events. The events that differ from their tasks are found
+     * first, so that a page of echoes does not move the user's data version; those that do are
+     * then applied after bumping it, which orders the write against concurrent task writes.
+     */
+    private int apply(Long userId, List<Event> events) {
+        Map<String, Event> eventsById = events.stream()
+                .collect(Collectors.toMap(Event::getId, event -> event, (earlier, later) -> later, LinkedHashMap::new));
+        if (eventsById.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> changed = readOnlyTransactionTemplate.execute(status -> taskRepository
+                .findByUserIdAndGoogleEventIdIn(userId, eventsById.keySet()).stream()
+                .filter(task -> differs(eventsById.get(task.getGoogleEventId()), task))
+                .map(Task::getGoogleEventId)
+                .collect(Collectors.toSet()));
+        if (changed.isEmpty()) {
+            return 0;
+        }
+
+        return transactionTemplate.execute(status -> {
+            long changeSeq = dataVersionService.bump(userId);
+            List<Task> tasks = taskRepository.findByUserIdAndGoogleEventIdIn(userId, changed);
+            if (tasks.isEmpty()) {
+                return 0;
+            }
+            Set<Long> pending = outboxRepository.findPendingByTaskIds(
+                            tasks.stream().map(Task::getId).collect(Collectors.toList())).stream()
+                    .map(CalendarOutboxEntry::getTaskId)
+                    .collect(Collectors.toSet());
+
+            int updated = 0;
+            for (Task task : tasks) {
+                Event event = eventsById.get(task.getGoogleEventId());
+                if (pending.contains(task.getId()) || !differs(event, task)) {
+                    continue;
+                }
+                if (isCancelled(event)) {
+                    task.setGoogleEventId(null);
+                    task.setCalendarHash(null);
+                    task.setDueDate(null);
+                } else {
+                    CalendarEventContent.from(event).applyTo(task);
+                    // The event already shows this content, so it is not written back
+                    task.setCalendarHash(GoogleCalenderService.fingerprint(task));
+                }
+                task.setChangeSeq(changeSeq);
+                taskSearchIndex.taskSaved(task);
+                updated++;
+            }
+            return updated;
+        });
+    }
+
+    private static boolean differs(Event event, Task task) {
+        return isCancelled(event) || !CalendarEventContent.from(event).matches(task);
+    }
+
+    private static boolean isCancelled(Event event) {
+        return "cancelled".equals(event.getStatus());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,27 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.model.Task;
+
+/**
+ * One call to the Calendar API: inserting or updating the event of a task, or deleting an event.
+ */
+public record CalendarOperation(Type type, Task task, String eventId) {
+
+    public enum Type {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    public static CalendarOperation insert(Task task) {
+        return new CalendarOperation(Type.INSERT, task, null);
+    }
+
+    public static CalendarOperation update(Task task) {
+        return new CalendarOperation(Type.UPDATE, task, task.getGoogleEventId());
+    }
+
+    public static CalendarOperation delete(String eventId) {
+        return new CalendarOperation(Type.DELETE, null, eventId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.newton.taskmanagementapi.service;
+
+/**
+ * Outcome of a {@link CalendarOperation}: the id of the event it acted on, or why it failed and
+ * whether sending it again may succeed.
+ */
+public record CalendarOperationResult(String eventId, String error, boolean retriable) {
+
+    public static CalendarOperationResult success(String eventId) {
+        return new CalendarOperationResult(eventId, null, false);
+    }
+
+    public static CalendarOperationResult failure(String error) {
+        return new CalendarOperationResult(null, error, true);
+    }
+
+    public static CalendarOperationResult permanentFailure(String error) {
+        return new CalendarOperationResult(null, error, false);
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+}
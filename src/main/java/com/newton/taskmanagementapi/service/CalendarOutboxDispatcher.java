@@ -0,0 +1,388 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.exception.CalendarUnavailableException;
+import com.newton.taskmanagementapi.model.CalendarOutboxEntry;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.CalendarOutboxRepository;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Carries out the Google Calendar operations that task writes record in the outbox, off the
+ * request path. Each round claims the oldest pending entry of every task with a lease, so several
+ * instances can poll the same table, and folds it with the task's later entries into at most one
+ * call. The calls of a user are sent as batch requests once the user's burst has settled or fills
+ * a batch, and different users are served concurrently. Failed entries are retried with
+ * exponential backoff until they run out of attempts; an entry Google refused for good, such as
+ * a bad request or a missing event, fails on its first attempt. While the {@link CalendarCallGuard} refuses
+ * calls, nothing is claimed, and entries it turns away are put off without using up an attempt.
+ * Delivery is at least once: an entry interrupted after Google applied it runs again.
+ */
+@Service
+@Slf4j
+public class CalendarOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final CalendarOutboxRepository outboxRepository;
+    private final TaskRepository taskRepository;
+    private final UserRepository userRepository;
+    private final DataVersionService dataVersionService;
+    private final GoogleCalenderService googleCalendarService;
+    private final CalendarCallGuard callGuard;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ExecutorService executor;
+
+    private final boolean enabled;
+    private final int claimLimit;
+    private final int batchSize;
+    private final Duration linger;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    private final Counter succeeded;
+    private final Counter retried;
+    private final Counter failed;
+    private final Counter deferred;
+
+    public CalendarOutboxDispatcher(CalendarOutboxRepository outboxRepository,
+                                    TaskRepository taskRepository,
+                                    UserRepository userRepository,
+                                    DataVersionService dataVersionService,
+                                    GoogleCalenderService googleCalendarService,
+                                    CalendarCallGuard callGuard,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${app.calendar.outbox.enabled:true}") boolean enabled,
+                                    @Value("${app.calendar.outbox.claim-limit:500}") int claimLimit,
+                                    @Value("${app.calendar.outbox.batch-size:50}") int batchSize,
+                                    @Value("${app.calendar.outbox.linger:2s}") Duration linger,
+                                    @Value("${app.calendar.outbox.concurrency:4}") int concurrency,
+                                    @Value("${app.calendar.outbox.max-attempts:10}") int maxAttempts,
+                                    @Value("${app.calendar.outbox.initial-backoff:5s}") Duration initialBackoff,
+                                    @Value("${app.calendar.outbox.max-backoff:30m}") Duration maxBackoff,
+                                    @Value("${app.calendar.outbox.lease:5m}") Duration lease,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.outboxRepository = outboxRepository;
+        this.taskRepository = taskRepository;
+        this.userRepository = userRepository;
+        this.dataVersionService = dataVersionService;
+        this.googleCalendarService = googleCalendarService;
+        this.callGuard = callGuard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.executor = WorkerPools.fixed("calendar-outbox", concurrency, virtualThreads);
+        this.enabled = enabled;
+        this.claimLimit = claimLimit;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+
+        Gauge.builder("calendar.outbox.lag", this, CalendarOutboxDispatcher::lagSeconds)
+                .description("Age of the oldest pending calendar operation")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("calendar.outbox.pending", outboxRepository,
+                        repository -> repository.countByStatus(CalendarOutboxEntry.Status.PENDING))
+                .description("Calendar operations waiting to be dispatched")
+                .register(meterRegistry);
+        this.succeeded = dispatched(meterRegistry, "success");
+        this.retried = dispatched(meterRegistry, "retry");
+        this.failed = dispatched(meterRegistry, "failed");
+        this.deferred = dispatched(meterRegistry, "deferred");
+    }
+
+    @Scheduled(fixedDelayString = "${app.calendar.outbox.poll-interval:1s}")
+    public void poll() {
+        if (enabled) {
+            dispatch();
+        }
+    }
+
+    /**
+     * Runs one round over the entries that are due and returns how many tasks it handled.
+     */
+    public int dispatch() {
+        if (!callGuard.isCallPermitted()) {
+            // Claimed entries would only be turned away; they stay due for a later round
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<TaskEntries> claimed = transactionTemplate.execute(status -> claim(now));
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<TaskEntries>> byUser = claimed.stream()
+                .collect(Collectors.groupingBy(TaskEntries::userId, LinkedHashMap::new, Collectors.toList()));
+        CompletableFuture.allOf(byUser.entrySet().stream()
+                .map(user -> CompletableFuture.runAsync(() -> run(user.getKey(), user.getValue()), executor)
+                        .exceptionally(e -> {
+                            // The leases run out and the entries are picked up again by a later round
+                            log.error("Calendar outbox entries of user {} could not be settled", user.getKey(), e);
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new))
+                .join();
+        return claimed.size();
+    }
+
+    /**
+     * Claims the head entry of each due task of the users whose burst has settled, meaning their
+     * oldest due entry has waited out the linger time, or who have a full batch waiting. The later
+     * entries of each task come along: they are read before the task is, so they are covered by
+     * the task's one call.
+     */
+    private List<TaskEntries> claim(LocalDateTime now) {
+        LocalDateTime settled = now.minus(linger);
+        Map<Long, List<CalendarOutboxEntry>> candidatesByUser = outboxRepository
+                .findDispatchable(now, PageRequest.of(0, claimLimit)).stream()
+                .collect(Collectors.groupingBy(CalendarOutboxEntry::getUserId, LinkedHashMap::new, Collectors.toList()));
+
+        List<CalendarOutboxEntry> heads = candidatesByUser.values().stream()
+                .filter(entries -> entries.size() >= batchSize || !entries.get(0).getCreatedAt().isAfter(settled))
+                .flatMap(List::stream)
+                .filter(entry -> outboxRepository.claim(entry.getId(), now, now.plus(lease)) == 1)
+                .collect(Collectors.toList());
+        if (heads.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<CalendarOutboxEntry>> pendingByTask = outboxRepository
+                .findPendingByTaskIds(heads.stream().map(CalendarOutboxEntry::getTaskId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.groupingBy(CalendarOutboxEntry::getTaskId));
+
+        return heads.stream()
+                .map(head -> new TaskEntries(head.getUserId(), head.getTaskId(), pendingByTask
+                        .getOrDefault(head.getTaskId(), List.of(head)).stream()
+                        .filter(entry -> entry.getId() >= head.getId())
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+
+    private void run(Long userId, List<TaskEntries> claimed) {
+        Optional<User> user = userRepository.findById(userId);
+        Map<Long, Task> tasks = readOnlyTransactionTemplate.execute(status -> taskRepository
+                .findAllById(claimed.stream().map(TaskEntries::taskId).collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity())));
+
+        List<TaskEntries> settled = new ArrayList<>();
+        List<TaskEntries> calling = new ArrayList<>();
+        List<CalendarOperation> operations = new ArrayList<>();
+        for (TaskEntries entries : claimed) {
+            Optional<CalendarOperation> operation = user.flatMap(u -> entries.operation(tasks.get(entries.taskId())));
+            if (operation.isPresent()) {
+                calling.add(entries);
+                operations.add(operation.get());
+            } else {
+                settled.add(entries);
+            }
+        }
+
+        List<CalendarOperationResult> results = new ArrayList<>();
+        try {
+            for (int from = 0; from < operations.size(); from += batchSize) {
+                results.addAll(googleCalendarService.executeBatch(
+                        operations.subList(from, Math.min(from + batchSize, operations.size())), user.orElseThrow()));
+            }
+        } catch (CalendarUnavailableException e) {
+            defer(calling.subList(results.size(), calling.size()), e);
+        }
+
+        Map<Long, String> createdEvents = new LinkedHashMap<>();
+        List<CalendarOperation> updated = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            TaskEntries entries = calling.get(i);
+            CalendarOperationResult result = results.get(i);
+            if (!result.succeeded()) {
+                transactionTemplate.executeWithoutResult(status -> retryLater(entries.head().getId(), result));
+                continue;
+            }
+            switch (operations.get(i).type()) {
+                case INSERT -> createdEvents.put(entries.taskId(), result.eventId());
+                case UPDATE -> updated.add(operations.get(i));
+                case DELETE -> {
+                }
+            }
+            settled.add(entries);
+        }
+
+        if (!createdEvents.isEmpty()) {
+            assignCreatedEvents(userId, user.orElseThrow(), createdEvents, tasks);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            updated.forEach(operation -> taskRepository.recordCalendarHash(operation.task().getId(),
+                    operation.eventId(), GoogleCalenderService.fingerprint(operation.task())));
+            outboxRepository.deleteByIds(settled.stream()
+                    .flatMap(entries -> entries.entries().stream())
+                    .map(CalendarOutboxEntry::getId)
+                    .collect(Collectors.toList()));
+        });
+        succeeded.increment(settled.size());
+    }
+
+    /**
+     * Stores the ids of newly created events with the fingerprints they were created from. Task
+     * writes bump the data version before reading the task, so taking the same row lock here
+     * orders this write against them: a concurrent delete either sees the event id and queues its
+     * removal, or removes the task first and the orphaned event is deleted here.
+     */
+    private void assignCreatedEvents(Long userId, User user, Map<Long, String> createdEvents, Map<Long, Task> tasks) {
+        List<CalendarOperation> orphans = transactionTemplate.execute(status -> {
+            long changeSeq = dataVersionService.bump(userId);
+            LocalDateTime now = LocalDateTime.now();
+            return createdEvents.entrySet().stream()
+                    .filter(created -> taskRepository.assignCalendarEvent(created.getKey(), created.getValue(),
+                            GoogleCalenderService.fingerprint(tasks.get(created.getKey())), changeSeq, now) == 0)
+                    .map(created -> CalendarOperation.delete(created.getValue()))
+                    .collect(Collectors.toList());
+        });
+
+        if (orphans.isEmpty()) {
+            return;
+        }
+        try {
+            googleCalendarService.executeBatch(orphans, user).stream()
+                    .filter(result -> !result.succeeded())
+                    .forEach(result -> log.warn("Failed to delete calendar event of a deleted task: {}", result.error()));
+        } catch (CalendarUnavailableException e) {
+            log.warn("Could not delete {} calendar events of deleted tasks: {}", orphans.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Puts off entries the call guard turned away until it expects to admit calls again. No call
+     * was made, so no attempt is counted.
+     */
+    private void defer(List<TaskEntries> refused, CalendarUnavailableException e) {
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(e.getRetryAfter());
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.defer(
+                refused.stream().map(entries -> entries.head().getId()).collect(Collectors.toList()), nextAttemptAt));
+        deferred.increment(refused.size());
+        log.info("Deferred {} calendar operations until {}: {}", refused.size(), nextAttemptAt, e.getMessage());
+    }
+
+    private void retryLater(Long entryId, CalendarOperationResult result) {
+        String error = result.error();
+        outboxRepository.findById(entryId).ifPresent(entry -> {
+            entry.setAttempts(entry.getAttempts() + 1);
+            entry.setClaimedUntil(null);
+            entry.setLastError(truncate(String.valueOf(error)));
+
+            if (!result.retriable()) {
+                entry.setStatus(CalendarOutboxEntry.Status.FAILED);
+                failed.increment();
+                log.error("Calendar {} of task {} was refused and will not be retried: {}",
+                        entry.getOperation(), entry.getTaskId(), error);
+            } else if (entry.getAttempts() >= maxAttempts) {
+                entry.setStatus(CalendarOutboxEntry.Status.FAILED);
+                failed.increment();
+                log.error("Giving up on calendar {} of task {} after {} attempts: {}",
+                        entry.getOperation(), entry.getTaskId(), entry.getAttempts(), error);
+            } else {
+                entry.setNextAttemptAt(LocalDateTime.now().plus(backoff(entry.getAttempts())));
+                retried.increment();
+                log.warn("Calendar {} of task {} failed, retrying at {}: {}",
+                        entry.getOperation(), entry.getTaskId(), entry.getNextAttemptAt(), error);
+            }
+        });
+    }
+
+    /**
+     * Doubles the delay with every attempt up to the maximum, with jitter so that entries failing
+     * together do not retry together.
+     */
+    Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    private double lagSeconds() {
+        return outboxRepository.findOldestPendingCreatedAt()
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0)
+                .orElse(0.0);
+    }
+
+    private String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static Counter dispatched(MeterRegistry registry, String outcome) {
+        return Counter.builder("calendar.outbox.dispatched")
+                .description("Calendar operations dispatched, by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * The pending entries of one task, oldest first, starting with the claimed head.
+     */
+    private record TaskEntries(Long userId, Long taskId, List<CalendarOutboxEntry> entries) {
+
+        CalendarOutboxEntry head() {
+            return entries.get(0);
+        }
+
+        /**
+         * The one call that brings the task's event up to date, if any. A DELETE is always the last
+         * entry of a task, and makes the SYNCs before it moot; without an event id it means the
+         * event was never created, so the insert and the delete cancel out. SYNCs in a row collapse
+         * into one call made with the task as it is now, and into none when the task renders the
+         * same event its last write did.
+         */
+        Optional<CalendarOperation> operation(Task task) {
+            CalendarOutboxEntry last = entries.get(entries.size() - 1);
+            if (last.getOperation() == CalendarOutboxEntry.Operation.DELETE) {
+                return Optional.ofNullable(last.getGoogleEventId()).map(CalendarOperation::delete);
+            }
+            if (task == null) {
+                return Optional.empty();
+            }
+            if (task.getGoogleEventId() != null) {
+                return GoogleCalenderService.fingerprint(task).equals(task.getCalendarHash())
+                        ? Optional.empty()
+                        : Optional.of(CalendarOperation.update(task));
+            }
+            return task.getDueDate() != null ? Optional.of(CalendarOperation.insert(task)) : Optional.empty();
+        }
+    }
+}
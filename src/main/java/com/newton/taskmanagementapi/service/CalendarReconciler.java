@@ -0,0 +1,171 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.model.CalendarOutboxEntry;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.CalendarOutboxRepository;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Finds tasks whose calendar events have drifted from them and queues a SYNC for each through the
+ * outbox. A task drifts when it has a due date but no event, or when its event carries a different
+ * fingerprint than the task renders now. The user's events are listed once, page by page, and
+ * compared with the tasks in pages of {@code page-size}; each page is backfilled with one insert.
+ * Events that are missing from the calendar were removed there and are left alone.
+ */
+@Service
+@Slf4j
+public class CalendarReconciler {
+
+    private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
+    private final CalendarOutboxRepository outboxRepository;
+    private final GoogleCalenderService googleCalendarService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final boolean enabled;
+    private final int pageSize;
+
+    public CalendarReconciler(UserRepository userRepository,
+                              TaskRepository taskRepository,
+                              CalendarOutboxRepository outboxRepository,
+                              GoogleCalenderService googleCalendarService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.calendar.reconcile.enabled:true}") boolean enabled,
+                              @Value("${app.calendar.reconcile.page-size:500}") int pageSize) {
+        this.userRepository = userRepository;
+        this.taskRepository = taskRepository;
+        this.outboxRepository = outboxRepository;
+        this.googleCalendarService = googleCalendarService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.calendar.reconcile.interval:6h}",
+            initialDelayString = "${app.calendar.reconcile.initial-delay:10m}")
+    public void poll() {
+        if (enabled) {
+            reconcileAll();
+        }
+    }
+
+    /**
+     * Reconciles every user who connected Google Calendar and returns how many tasks were queued.
+     */
+    public int reconcileAll() {
+        int queued = 0;
+        Long afterId = 0L;
+        List<User> users;
+        do {
+            users = userRepository.findWithCalendarAccess(afterId, PageRequest.of(0, pageSize));
+            for (User user : users) {
+                try {
+                    queued += reconcile(user);
+                } catch (Exception e) {
+                    // The next run tries again; one user's calendar failing must not hold up the rest
+                    log.warn("Failed to reconcile calendar of user {}", user.getId(), e);
+                }
+            }
+            if (!users.isEmpty()) {
+                afterId = users.get(users.size() - 1).getId();
+            }
+        } while (users.size() == pageSize);
+
+        if (queued > 0) {
+            log.info("Calendar reconciliation queued {} tasks", queued);
+        }
+        return queued;
+    }
+
+    /**
+     * Queues a SYNC for each of the user's tasks that drifted from its event and returns how many
+     * were queued.
+     */
+    public int reconcile(User user) {
+        Map<String, String> eventFingerprints = googleCalendarService.listEventFingerprints(user);
+
+        int queued = 0;
+        Long afterId = 0L;
+        List<Task> tasks;
+        do {
+            Long from = afterId;
+            tasks = readOnlyTransactionTemplate.execute(status ->
+                    taskRepository.findCalendarTasks(user.getId(), from, PageRequest.of(0, pageSize)));
+            if (!tasks.isEmpty()) {
+                queued += reconcilePage(user.getId(), tasks, eventFingerprints);
+                afterId = tasks.get(tasks.size() - 1).getId();
+            }
+        } while (tasks.size() == pageSize);
+        return queued;
+    }
+
+    private int reconcilePage(Long userId, List<Task> tasks, Map<String, String> eventFingerprints) {
+        List<Task> drifted = new ArrayList<>();
+        List<Task> confirmed = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.getGoogleEventId() == null) {
+                if (task.getDueDate() != null) {
+                    drifted.add(task);
+                }
+            } else if (eventFingerprints.containsKey(task.getGoogleEventId())) {
+                String fingerprint = GoogleCalenderService.fingerprint(task);
+                if (!fingerprint.equals(eventFingerprints.get(task.getGoogleEventId()))) {
+                    drifted.add(task);
+                } else if (!fingerprint.equals(task.getCalendarHash())) {
+                    confirmed.add(task);
+                }
+            }
+        }
+        if (drifted.isEmpty() && confirmed.isEmpty()) {
+            return 0;
+        }
+
+        return transactionTemplate.execute(status -> {
+            // The event matches the task, so the fingerprint is known even if it was never stored
+            confirmed.forEach(task -> taskRepository.recordCalendarHash(
+                    task.getId(), task.getGoogleEventId(), GoogleCalenderService.fingerprint(task)));
+
+            if (drifted.isEmpty()) {
+                return 0;
+            }
+
+            // Tasks with entries still queued are brought up to date by those
+            Set<Long> pending = outboxRepository.findPendingByTaskIds(
+                            drifted.stream().map(Task::getId).collect(Collectors.toList())).stream()
+                    .map(CalendarOutboxEntry::getTaskId)
+                    .collect(Collectors.toSet());
+            List<Task> backfill = drifted.stream()
+                    .filter(task -> !pending.contains(task.getId()))
+                    .collect(Collectors.toList());
+            if (backfill.isEmpty()) {
+                return 0;
+            }
+
+            // Forget the stored fingerprint, so the dispatcher does not skip the event as unchanged
+            backfill.stream()
+                    .filter(task -> task.getGoogleEventId() != null)
+                    .forEach(task -> taskRepository.recordCalendarHash(task.getId(), task.getGoogleEventId(), null));
+            return outboxRepository.insertSyncs(userId,
+                    backfill.stream().map(Task::getId).collect(Collectors.toList()), LocalDateTime.now());
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.newton.taskmanagementapi.service;
+
+/**
+ * Told the data version of every committed write, so in-memory state that follows the version can
+ * move past writes that changed nothing it holds. Writes that do change what it holds still have
+ * to report those changes themselves.
+ */
+interface DataVersionListener {
+
+    void versionAdvanced(Long userId, long version);
+}
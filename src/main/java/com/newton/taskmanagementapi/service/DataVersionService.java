@@ -0,0 +1,39 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+/**
+ * Tracks a per-user version of the task and tag data, bumped by every write. Conditional GETs
+ * compare it with the client's ETag before any entity is loaded. The version is read from the
+ * database on every call rather than cached, so a write through any instance is seen by the next
+ * conditional GET on every other one; the lookup is a single primary-key read.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataVersionService {
+
+    private final UserRepository userRepository;
+    // Looked up lazily: the listeners read versions through this service
+    private final ObjectProvider<DataVersionListener> listeners;
+
+    public long getVersion(Long userId) {
+        return userRepository.findDataVersionById(userId).orElse(0L);
+    }
+
+    /**
+     * Increments the user's version and returns the new value, which doubles as the sequence
+     * number of the write in delta syncs. Must run inside the transaction of the write: the
+     * increment holds the user's row lock until commit, so a user's writes commit in sequence order.
+     * Every {@link DataVersionListener} is told the new version once the write commits.
+     */
+    public long bump(Long userId) {
+        userRepository.incrementDataVersion(userId);
+        long version = userRepository.findDataVersionById(userId).orElseThrow();
+        AfterCommit.run(() -> listeners.orderedStream()
+                .forEach(listener -> listener.versionAdvanced(userId, version)));
+        return version;
+    }
+}
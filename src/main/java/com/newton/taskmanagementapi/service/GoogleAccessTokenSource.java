@@ -0,0 +1,12 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.model.User;
+
+/**
+ * Supplies the access token to call Google APIs with on behalf of a user.
+ */
+@FunctionalInterface
+public interface GoogleAccessTokenSource {
+
+    String accessToken(User user);
+}
@@ -0,0 +1,123 @@
+package com.newton.taskmanagementapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.apache.v2.ApacheHttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.SslUtils;
+import com.google.api.services.calendar.Calendar;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.newton.taskmanagementapi.model.User;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLContext;
+import java.net.ProxySelector;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calendar clients over one shared, connection-pooled transport. A user's client is cached with
+ * the access token it was built for and replaced as soon as the token source hands out a new one.
+ * Requests give up after {@code connect-timeout} and {@code read-timeout}, so a slow Google fails
+ * calls instead of holding on to threads.
+ */
+@Component
+public class GoogleCalendarClients {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    private final HttpTransport transport;
+    private final GoogleAccessTokenSource tokenSource;
+    private final String applicationName;
+    private final String rootUrl;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final Cache<Long, UserClient> clients;
+
+    public GoogleCalendarClients(HttpTransport transport,
+                                 GoogleAccessTokenSource tokenSource,
+                                 @Value("${google.calendar.application-name}") String applicationName,
+                                 // Overridden to point the clients at a local fake server in tests
+                                 @Value("${google.calendar.root-url:" + Calendar.DEFAULT_ROOT_URL + "}") String rootUrl,
+                                 @Value("${google.calendar.client-cache.max-users:10000}") long maxUsers,
+                                 @Value("${google.calendar.client-cache.ttl:1h}") Duration ttl,
+                                 @Value("${google.calendar.connect-timeout:5s}") Duration connectTimeout,
+                                 @Value("${google.calendar.read-timeout:15s}") Duration readTimeout) {
+        this.transport = transport;
+        this.tokenSource = tokenSource;
+        this.applicationName = applicationName;
+        this.rootUrl = rootUrl;
+        this.connectTimeoutMillis = Math.toIntExact(connectTimeout.toMillis());
+        this.readTimeoutMillis = Math.toIntExact(readTimeout.toMillis());
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    /**
+     * Builds a transport that keeps up to {@code maxConnections} connections open for reuse and
+     * trusts the certificates of the given store. Mirrors the defaults of Google's own Apache
+     * transport, except that requests without a body are retried once: a pooled connection the
+     * server closed while it was idle only fails once it is used again.
+     */
+    public static HttpTransport newPooledTransport(KeyStore trustStore, int maxConnections) throws GeneralSecurityException {
+        SSLContext sslContext = SslUtils.getTlsSslContext();
+        SslUtils.initSslContext(sslContext, trustStore, SslUtils.getPkixTrustManagerFactory());
+
+        return new ApacheHttpTransport(HttpClientBuilder.create()
+                .useSystemProperties()
+                .setSSLSocketFactory(new SSLConnectionSocketFactory(sslContext))
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setRoutePlanner(new SystemDefaultRoutePlanner(ProxySelector.getDefault()))
+                .disableRedirectHandling()
+                .setRetryHandler(new DefaultHttpRequestRetryHandler(1, false))
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build());
+    }
+
+    public Calendar forUser(User user) {
+        String accessToken = tokenSource.accessToken(user);
+
+        return clients.asMap()
+                .compute(user.getId(), (id, cached) -> cached != null && cached.accessToken().equals(accessToken)
+                        ? cached
+                        : new UserClient(accessToken, build(accessToken)))
+                .calendar();
+    }
+
+    public void evict(Long userId) {
+        clients.invalidate(userId);
+    }
+
+    private Calendar build(String accessToken) {
+        HttpCredentialsAdapter credentials =
+                new HttpCredentialsAdapter(GoogleCredentials.create(new AccessToken(accessToken, null)));
+        HttpRequestInitializer initializer = request -> {
+            credentials.initialize(request);
+            request.setConnectTimeout(connectTimeoutMillis);
+            request.setReadTimeout(readTimeoutMillis);
+        };
+
+        return new Calendar.Builder(transport, JSON_FACTORY, initializer)
+                .setApplicationName(applicationName)
+                .setRootUrl(rootUrl)
+                .build();
+    }
+
+    private record UserClient(String accessToken, Calendar calendar) {
+    }
+}
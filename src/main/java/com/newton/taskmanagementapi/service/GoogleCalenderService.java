@@ -1,91 +1,193 @@
 package com.newton.taskmanagementapi.service;
 
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
-import com.google.api.client.http.HttpRequestInitializer;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.googleapis.batch.BatchRequest;
+import com.google.api.client.googleapis.batch.json.JsonBatchCallback;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.util.DateTime;
 import com.google.api.services.calendar.Calendar;
 import com.google.api.services.calendar.model.Event;
 import com.google.api.services.calendar.model.EventDateTime;
-import com.google.auth.http.HttpCredentialsAdapter;
-import com.google.auth.oauth2.AccessToken;
-import com.google.auth.oauth2.GoogleCredentials;
+import com.google.api.services.calendar.model.Events;
+import com.newton.taskmanagementapi.exception.CalendarUnavailableException;
 import com.newton.taskmanagementapi.exception.GoogleCalendarException;
+import com.newton.taskmanagementapi.exception.SyncTokenExpiredException;
 import com.newton.taskmanagementapi.model.Task;
 import com.newton.taskmanagementapi.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.security.GeneralSecurityException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class GoogleCalenderService {
 
-    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+    // Private extended property that carries the task fingerprint an event was written with
+    static final String FINGERPRINT_PROPERTY = "taskFingerprint";
 
-    @Value("${google.calendar.application-name}")
-    private String applicationName;
+    private static final int EVENT_PAGE_SIZE = 2500;
 
-    public String createCalendarEvent(Task task, User user) {
-        try {
-            Calendar service = getCalendarService(user);
-            Event event = createEventFromTask(task);
+    // 403 reasons with which Google signals throttling of the whole project rather than a lack of permission
+    private static final Set<String> RATE_LIMIT_REASONS = Set.of("rateLimitExceeded", "quotaExceeded");
+    // 403 reason with which Google throttles a single user; their calls back off, the breaker is left alone
+    private static final String USER_RATE_LIMIT_REASON = "userRateLimitExceeded";
 
-            event = service.events().insert("primary", event).execute();
-            log.info("Created calendar event: {}", event.getId());
+    private final GoogleCalendarClients calendarClients;
+    private final CalendarCallGuard callGuard;
+    private final MeterRegistry meterRegistry;
 
-            return event.getId();
-        } catch (Exception e) {
-            log.error("Failed to create calendar event for task: {}", task.getId(), e);
-            throw new GoogleCalendarException("Failed to create calendar event", e);
+    /**
+     * Hash of everything the task's calendar event is rendered from. Equal fingerprints render
+     * equal events, so a write whose fingerprint matches the last one written can be skipped.
+     */
+    public static String fingerprint(Task task) {
+        Event event = createEventFromTask(task);
+        String content = String.join("\u0000",
+                Objects.toString(event.getSummary()),
+                Objects.toString(event.getDescription()),
+                event.getStart() == null ? "" : event.getStart().getDateTime().toStringRfc3339(),
+                event.getEnd() == null ? "" : event.getEnd().getDateTime().toStringRfc3339(),
+                event.getStart() == null ? "" : event.getStart().getTimeZone());
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(content.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
 
-    public void updateCalendarEvent(Task task, User user) {
+    /**
+     * Runs the operations as one batch HTTP request and returns their results in the same order;
+     * a single operation is sent on its own. Deleting an event that is already gone counts as a
+     * success. A failure of the whole request fails every operation. Throws
+     * {@link CalendarUnavailableException}, without calling Google, when the call guard refuses
+     * the batch.
+     */
+    public List<CalendarOperationResult> executeBatch(List<CalendarOperation> operations, User user) {
+        CalendarOperationResult[] results = new CalendarOperationResult[operations.size()];
+        CallHealth health = new CallHealth();
         try {
-            if (task.getGoogleEventId() == null) {
-                log.warn("Task {} has no Google event ID", task.getId());
-                return;
-            }
+            Calendar service = calendarClients.forUser(user);
 
-            Calendar service = getCalendarService(user);
-            Event event = createEventFromTask(task);
+            // Google counts every part of a batch as a request of its own
+            String name = operations.size() == 1 ? operationName(operations.get(0)) : "batch";
+            guarded(name, user, operations.size(), () -> {
+                if (operations.size() == 1) {
+                    results[0] = execute(service, operations.get(0), health);
+                } else {
+                    BatchRequest batch = service.batch();
+                    for (int i = 0; i < operations.size(); i++) {
+                        queue(service, batch, operations.get(i), results, i, health);
+                    }
+                    batch.execute();
+                    log.info("Executed {} calendar operations in one batch", operations.size());
+                }
+                return null;
+            }, health);
+        } catch (CalendarUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to execute {} calendar operations", operations.size(), e);
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == null) {
+                    results[i] = CalendarOperationResult.failure(String.valueOf(e.getMessage()));
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
 
-            service.events().update("primary", task.getGoogleEventId(), event).execute();
-            log.info("Updated calendar event: {}", task.getGoogleEventId());
+    /**
+     * Lists the user's calendar events page by page and returns the task fingerprint each was
+     * written with, by event id; events written without one map to null.
+     */
+    public Map<String, String> listEventFingerprints(User user) {
+        try {
+            Calendar service = calendarClients.forUser(user);
+            Map<String, String> fingerprints = new HashMap<>();
+            String pageToken = null;
+            do {
+                Calendar.Events.List list = service.events().list("primary")
+                        .setMaxResults(EVENT_PAGE_SIZE)
+                        .setPageToken(pageToken)
+                        .setFields("nextPageToken,items(id,extendedProperties/private)");
+                Events page = guarded("list", user, 1, list::execute);
+                if (page.getItems() != null) {
+                    page.getItems().forEach(event -> fingerprints.put(event.getId(), fingerprintOf(event)));
+                }
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
+            return fingerprints;
+        } catch (CalendarUnavailableException e) {
+            throw e;
         } catch (Exception e) {
-            log.error("Failed to update calendar event for task: {}", task.getId(), e);
-            throw new GoogleCalendarException("Failed to update calendar event", e);
+            log.error("Failed to list calendar events for user: {}", user.getId(), e);
+            throw new GoogleCalendarException("Failed to list calendar events", e);
         }
     }
 
-    public void deleteCalendarEvent(String eventId, User user) {
+    /**
+     * Lists one page of the user's events that changed since the sync token was issued, deleted
+     * ones included, or of all events when there is no token. A page token continues a listing.
+     * Throws {@link SyncTokenExpiredException} when Google wants a full sync instead.
+     */
+    public CalendarChangesPage listChanges(User user, String syncToken, String pageToken) {
         try {
-            if (eventId == null) {
-                log.warn("No event ID provided for deletion");
-                return;
+            Calendar service = calendarClients.forUser(user);
+            Calendar.Events.List list = service.events().list("primary")
+                    .setMaxResults(EVENT_PAGE_SIZE)
+                    .setFields("nextPageToken,nextSyncToken,items(id,status,summary,description,start)");
+            if (pageToken != null) {
+                list.setPageToken(pageToken);
+            } else if (syncToken != null) {
+                list.setSyncToken(syncToken);
             }
 
-            Calendar service = getCalendarService(user);
-            service.events().delete("primary", eventId).execute();
-            log.info("Deleted calendar event: {}", eventId);
+            Events page = guarded("list-changes", user, 1, list::execute);
+            return new CalendarChangesPage(page.getItems() == null ? List.of() : page.getItems(),
+                    page.getNextPageToken(), page.getNextSyncToken());
+        } catch (CalendarUnavailableException e) {
+            throw e;
+        } catch (GoogleJsonResponseException e) {
+            if (e.getStatusCode() == 410) {
+                throw new SyncTokenExpiredException("Calendar sync token expired", e);
+            }
+            log.error("Failed to list changed calendar events for user: {}", user.getId(), e);
+            throw new GoogleCalendarException("Failed to list changed calendar events", e);
         } catch (Exception e) {
-            log.error("Failed to delete calendar event: {}", eventId, e);
-            throw new GoogleCalendarException("Failed to delete calendar event", e);
+            log.error("Failed to list changed calendar events for user: {}", user.getId(), e);
+            throw new GoogleCalendarException("Failed to list changed calendar events", e);
         }
     }
 
     public Event getCalendarEvent(String eventId, User user) {
         try {
-            Calendar service = getCalendarService(user);
-            return service.events().get("primary", eventId).execute();
+            Calendar service = calendarClients.forUser(user);
+            Calendar.Events.Get get = service.events().get("primary", eventId);
+            return guarded("get", user, 1, get::execute);
+        } catch (CalendarUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to get calendar event: {}", eventId, e);
             throw new GoogleCalendarException("Failed to get calendar event", e);
@@ -93,25 +195,164 @@ public class GoogleCalenderService {
     }
 
 
-    private Calendar getCalendarService(User user) throws GeneralSecurityException, IOException {
-        if (user.getGoogleAccessToken() == null) {
-            throw new GoogleCalendarException("Google Access Token is null");
+    /**
+     * Makes a call of the given number of requests once the call guard admits it, and reports the
+     * outcome to the guard: project-wide throttling, server errors and calls that fail to get an
+     * answer count against Google, including errors {@code health} collected from the parts of a
+     * batch. A user throttled on their own makes the guard back off that user only. Anything else
+     * Google answered counts as healthy. The call is timed by operation and outcome; errors are
+     * also counted by HTTP status, {@code none} when Google did not answer.
+     */
+    private <T> T guarded(String operation, User user, int requests, CalendarCall<T> call, CallHealth health)
+            throws IOException {
+        callGuard.acquire(user.getId(), requests);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        boolean answered = false;
+        try {
+            T result = call.execute();
+            answered = true;
+            outcome = health.failed ? "degraded" : "success";
+            return result;
+        } catch (GoogleJsonResponseException e) {
+            answered = true;
+            health.record(e.getStatusCode(), e.getDetails());
+            errors(operation, String.valueOf(e.getStatusCode())).increment();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            errors(operation, "none").increment();
+            throw e;
+        } finally {
+            sample.stop(calls(operation, outcome));
+            if (health.userThrottled) {
+                callGuard.backOff(user.getId());
+            }
+            if (!answered || health.failed) {
+                callGuard.onFailure();
+            } else {
+                callGuard.onSuccess();
+            }
         }
+    }
+
+    private <T> T guarded(String operation, User user, int requests, CalendarCall<T> call) throws IOException {
+        return guarded(operation, user, requests, call, new CallHealth());
+    }
 
-        NetHttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
+    private Timer calls(String operation, String outcome) {
+        return Timer.builder("calendar.api.calls")
+                .description("Calls to the Google Calendar API, by operation and outcome")
+                .tags("operation", operation, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter errors(String operation, String status) {
+        return Counter.builder("calendar.api.errors")
+                .description("Failed Google Calendar operations, by operation and HTTP status")
+                .tags("operation", operation, "status", status)
+                .register(meterRegistry);
+    }
 
-        GoogleCredentials credentials = GoogleCredentials.create(
-                new AccessToken(user.getGoogleAccessToken(), null)
-        );
+    /**
+     * The name an operation is timed and counted under, so insert, update and delete stay apart
+     * whether they are sent on their own or as parts of a batch.
+     */
+    private static String operationName(CalendarOperation operation) {
+        return operation.type().name().toLowerCase(Locale.ROOT);
+    }
 
-        HttpRequestInitializer requestInitializer = new HttpCredentialsAdapter(credentials);
+    private static boolean hasReason(int statusCode, GoogleJsonError details, Set<String> reasons) {
+        return statusCode == 403 && details != null && details.getErrors() != null && details.getErrors().stream()
+                .anyMatch(error -> reasons.contains(error.getReason()));
+    }
 
-        return new Calendar.Builder(httpTransport, JSON_FACTORY, requestInitializer)
-                .setApplicationName(applicationName)
-                .build();
+    private CalendarOperationResult execute(Calendar service, CalendarOperation operation, CallHealth health) throws IOException {
+        try {
+            return switch (operation.type()) {
+                case INSERT -> CalendarOperationResult.success(
+                        service.events().insert("primary", renderEvent(operation.task())).execute().getId());
+                case UPDATE -> {
+                    service.events().update("primary", operation.eventId(), renderEvent(operation.task())).execute();
+                    yield CalendarOperationResult.success(operation.eventId());
+                }
+                case DELETE -> {
+                    service.events().delete("primary", operation.eventId()).execute();
+                    yield CalendarOperationResult.success(operation.eventId());
+                }
+            };
+        } catch (GoogleJsonResponseException e) {
+            health.record(e.getStatusCode(), e.getDetails());
+            return result(operation, e.getStatusCode(), e.getDetails(), e.getMessage());
+        }
     }
 
-    private Event createEventFromTask(Task task) {
+    private void queue(Calendar service, BatchRequest batch, CalendarOperation operation,
+                       CalendarOperationResult[] results, int index, CallHealth health) throws IOException {
+        switch (operation.type()) {
+            case INSERT -> service.events().insert("primary", renderEvent(operation.task()))
+                    .queue(batch, callback(operation, results, index, health));
+            case UPDATE -> service.events().update("primary", operation.eventId(), renderEvent(operation.task()))
+                    .queue(batch, callback(operation, results, index, health));
+            case DELETE -> service.events().delete("primary", operation.eventId())
+                    .queue(batch, callback(operation, results, index, health));
+        }
+    }
+
+    private <T> JsonBatchCallback<T> callback(CalendarOperation operation, CalendarOperationResult[] results, int index,
+                                              CallHealth health) {
+        return new JsonBatchCallback<>() {
+            @Override
+            public void onSuccess(T response, HttpHeaders responseHeaders) {
+                String eventId = response instanceof Event event ? event.getId() : operation.eventId();
+                results[index] = CalendarOperationResult.success(eventId);
+            }
+
+            @Override
+            public void onFailure(GoogleJsonError error, HttpHeaders responseHeaders) {
+                health.record(error.getCode(), error);
+                results[index] = result(operation, error.getCode(), error, error.getMessage());
+            }
+        };
+    }
+
+    private CalendarOperationResult result(CalendarOperation operation, int statusCode, GoogleJsonError details,
+                                           String message) {
+        if (operation.type() == CalendarOperation.Type.DELETE && (statusCode == 404 || statusCode == 410)) {
+            return CalendarOperationResult.success(operation.eventId());
+        }
+        errors(operationName(operation), String.valueOf(statusCode)).increment();
+        String error = statusCode + " " + message;
+        return isRetriable(statusCode, details)
+                ? CalendarOperationResult.failure(error)
+                : CalendarOperationResult.permanentFailure(error);
+    }
+
+    /**
+     * Whether an operation Google refused may succeed when sent again. A malformed request, an
+     * event that is gone and a 403 that is not throttling get the same answer every time.
+     */
+    private static boolean isRetriable(int statusCode, GoogleJsonError details) {
+        return switch (statusCode) {
+            case 400, 404, 410 -> false;
+            case 403 -> hasReason(statusCode, details, RATE_LIMIT_REASONS)
+                    || hasReason(statusCode, details, Set.of(USER_RATE_LIMIT_REASON));
+            default -> true;
+        };
+    }
+
+    private static String fingerprintOf(Event event) {
+        if (event.getExtendedProperties() == null || event.getExtendedProperties().getPrivate() == null) {
+            return null;
+        }
+        return event.getExtendedProperties().getPrivate().get(FINGERPRINT_PROPERTY);
+    }
+
+    private static Event renderEvent(Task task) {
+        return createEventFromTask(task).setExtendedProperties(new Event.ExtendedProperties()
+                .setPrivate(Map.of(FINGERPRINT_PROPERTY, fingerprint(task))));
+    }
+
+    private static Event createEventFromTask(Task task) {
         Event event = new Event()
                 .setSummary(task.getTitle())
                 .setDescription(task.getDescription());
@@ -135,11 +376,34 @@ public class GoogleCalenderService {
             event.setEnd(end);
         }
 
-        String statusText = task.getCompleted() ? "Status: Completed" : "Status: Pending";
+        String statusText = task.getCompleted() ? CalendarEventContent.STATUS_COMPLETED : CalendarEventContent.STATUS_PENDING;
         String description = task.getDescription() != null ?
                 task.getDescription() + "\n\n" + statusText : statusText;
         event.setDescription(description);
 
         return event;
     }
+
+    @FunctionalInterface
+    private interface CalendarCall<T> {
+        T execute() throws IOException;
+    }
+
+    /**
+     * What Google's errors during one call say: whether Google itself is throttling or failing,
+     * and whether the user alone ran out of quota. Batch parts report here as they complete.
+     */
+    private static final class CallHealth {
+
+        private volatile boolean failed;
+        private volatile boolean userThrottled;
+
+        void record(int statusCode, GoogleJsonError details) {
+            if (statusCode == 429 || statusCode >= 500 || hasReason(statusCode, details, RATE_LIMIT_REASONS)) {
+                failed = true;
+            } else if (hasReason(statusCode, details, Set.of(USER_RATE_LIMIT_REASON))) {
+                userThrottled = true;
+            }
+        }
+    }
 }
@@ -0,0 +1,306 @@
+package com.newton.taskmanagementapi.service;
+
+import com.google.api.client.auth.oauth2.ClientParametersAuthentication;
+import com.google.api.client.auth.oauth2.RefreshTokenRequest;
+import com.google.api.client.auth.oauth2.TokenResponse;
+import com.google.api.client.auth.oauth2.TokenResponseException;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.newton.taskmanagementapi.exception.GoogleCalendarException;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Keeps users' Google access tokens fresh. Tokens wait in a queue ordered by expiry and are
+ * refreshed {@code lead-time} before they expire, by a fixed pool of workers. A refreshed token
+ * is written back to the user row and kept in memory, where calendar callers pick it up without
+ * reading the row again. Refreshes of the same user share one request, whether the queue or a
+ * caller holding an expired token started it. Before asking Google, the user row is read again,
+ * and a token another instance has already refreshed is taken over instead. A transient failure is retried after
+ * {@code retry-delay}; a revoked refresh token drops the user from the queue until they sign in
+ * again.
+ */
+@Service
+@Slf4j
+public class GoogleTokenRefresher implements GoogleAccessTokenSource, SmartInitializingSingleton {
+
+    private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
+
+    // A token this close to expiry could run out while a call is in flight
+    private static final Duration EXPIRY_SKEW = Duration.ofSeconds(30);
+    private static final long DEFAULT_EXPIRES_IN_SECONDS = 3600;
+
+    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
+    private final HttpTransport transport;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService workers;
+
+    private final GenericUrl tokenServerUrl;
+    private final String clientId;
+    private final String clientSecret;
+    private final boolean enabled;
+    private final Duration leadTime;
+    private final Duration retryDelay;
+    private final int pageSize;
+
+    private final PriorityBlockingQueue<QueuedRefresh> queue =
+            new PriorityBlockingQueue<>(64, Comparator.comparing(QueuedRefresh::refreshAt));
+    private final Map<Long, GoogleToken> tokens = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<GoogleToken>> refreshing = new ConcurrentHashMap<>();
+    private final Map<Long, String> revoked = new ConcurrentHashMap<>();
+
+    public GoogleTokenRefresher(UserRepository userRepository,
+                                UserCacheService userCacheService,
+                                HttpTransport transport,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${spring.security.oauth2.client.provider.google.token-uri:https://oauth2.googleapis.com/token}") String tokenUri,
+                                @Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId,
+                                @Value("${spring.security.oauth2.client.registration.google.client-secret}") String clientSecret,
+                                @Value("${app.google.token-refresh.enabled:true}") boolean enabled,
+                                @Value("${app.google.token-refresh.lead-time:5m}") Duration leadTime,
+                                @Value("${app.google.token-refresh.retry-delay:1m}") Duration retryDelay,
+                                @Value("${app.google.token-refresh.concurrency:4}") int concurrency,
+                                @Value("${app.google.token-refresh.page-size:500}") int pageSize,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.userRepository = userRepository;
+        this.userCacheService = userCacheService;
+        this.transport = transport;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = WorkerPools.fixed("google-token-refresh", concurrency, virtualThreads);
+        this.tokenServerUrl = new GenericUrl(tokenUri);
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.enabled = enabled;
+        this.leadTime = leadTime;
+        this.retryDelay = retryDelay;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Queues the tokens of every user who connected their Google account.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        Long afterId = 0L;
+        List<User> users;
+        do {
+            users = userRepository.findWithCalendarAccess(afterId, PageRequest.of(0, pageSize));
+            users.forEach(this::tokenIssued);
+            if (!users.isEmpty()) {
+                afterId = users.get(users.size() - 1).getId();
+            }
+        } while (users.size() == pageSize);
+        log.info("Queued {} Google tokens for refresh", queue.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.google.token-refresh.poll-interval:15s}")
+    public void poll() {
+        if (enabled) {
+            refreshDue();
+        }
+    }
+
+    /**
+     * Refreshes the queued tokens that are due, waits for them, and returns how many were started.
+     */
+    public int refreshDue() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CompletableFuture<GoogleToken>> started = new ArrayList<>();
+        QueuedRefresh next;
+        while ((next = queue.peek()) != null && !next.refreshAt().isAfter(now)) {
+            QueuedRefresh due = queue.poll();
+            GoogleToken token = tokens.get(due.userId());
+            // Skip entries left behind by a token that has been replaced since
+            if (token != null && token.expiresAt().equals(due.expiresAt())) {
+                started.add(refresh(due.userId(), token.refreshToken()));
+            }
+        }
+
+        started.forEach(refresh -> refresh.exceptionally(e -> null).join());
+        return started.size();
+    }
+
+    /**
+     * Records a token Google issued at sign-in and queues its refresh.
+     */
+    public void tokenIssued(User user) {
+        GoogleToken issued = GoogleToken.of(user);
+        if (issued == null || (issued.refreshToken() != null && issued.refreshToken().equals(revoked.get(user.getId())))) {
+            return;
+        }
+        GoogleToken current = tokens.merge(user.getId(), issued, GoogleToken::newer);
+        if (current == issued) {
+            schedule(user.getId(), issued, issued.expiresAt().minus(leadTime));
+        }
+    }
+
+    /**
+     * The freshest token known for the user: the one refreshed here, or the user's own if that is
+     * newer. A token that has run out is refreshed first, joining a refresh already under way.
+     */
+    @Override
+    public String accessToken(User user) {
+        tokenIssued(user);
+        GoogleToken token = tokens.get(user.getId());
+        if (token == null) {
+            if (user.getGoogleAccessToken() == null) {
+                throw new GoogleCalendarException("Google Access Token is null");
+            }
+            // Without an expiry, or with a revoked refresh token, the token can only be used as it is
+            return user.getGoogleAccessToken();
+        }
+
+        if (token.refreshToken() != null && token.expiresAt().isBefore(LocalDateTime.now().plus(EXPIRY_SKEW))) {
+            try {
+                return refresh(user.getId(), token.refreshToken()).join().accessToken();
+            } catch (CompletionException e) {
+                throw new GoogleCalendarException("Failed to refresh Google access token", e.getCause());
+            }
+        }
+        return token.accessToken();
+    }
+
+    private CompletableFuture<GoogleToken> refresh(Long userId, String refreshToken) {
+        CompletableFuture<GoogleToken> created = new CompletableFuture<>();
+        CompletableFuture<GoogleToken> running = refreshing.putIfAbsent(userId, created);
+        if (running != null) {
+            return running;
+        }
+
+        workers.execute(() -> {
+            try {
+                GoogleToken token = requestToken(userId, refreshToken);
+                refreshing.remove(userId, created);
+                created.complete(token);
+            } catch (Exception e) {
+                refreshing.remove(userId, created);
+                created.completeExceptionally(e);
+            }
+        });
+        return created;
+    }
+
+    private GoogleToken requestToken(Long userId, String refreshToken) throws IOException {
+        GoogleToken stored = storedTokenIfNewer(userId);
+        if (stored != null) {
+            tokens.put(userId, stored);
+            schedule(userId, stored, stored.expiresAt().minus(leadTime));
+            log.debug("Adopted Google access token of user {} refreshed by another instance", userId);
+            return stored;
+        }
+
+        TokenResponse response;
+        try {
+            response = new RefreshTokenRequest(transport, JSON_FACTORY, tokenServerUrl, refreshToken)
+                    .setClientAuthentication(new ClientParametersAuthentication(clientId, clientSecret))
+                    .execute();
+        } catch (TokenResponseException e) {
+            if (e.getDetails() != null && "invalid_grant".equals(e.getDetails().getError())) {
+                tokens.remove(userId);
+                revoked.put(userId, refreshToken);
+                log.warn("Google refresh token of user {} was revoked; waiting for the next sign-in", userId);
+            } else {
+                retryLater(userId, e);
+            }
+            throw e;
+        } catch (IOException e) {
+            retryLater(userId, e);
+            throw e;
+        }
+
+        long expiresIn = response.getExpiresInSeconds() != null ? response.getExpiresInSeconds() : DEFAULT_EXPIRES_IN_SECONDS;
+        GoogleToken token = new GoogleToken(response.getAccessToken(),
+                response.getRefreshToken() != null ? response.getRefreshToken() : refreshToken,
+                LocalDateTime.now().plusSeconds(expiresIn));
+
+        // Written through the entity rather than an update query, which would evict every cached user
+        transactionTemplate.executeWithoutResult(status -> userRepository.findById(userId).ifPresent(user -> {
+            user.setGoogleAccessToken(token.accessToken());
+            user.setGoogleRefreshToken(token.refreshToken());
+            user.setTokenExpiryDate(token.expiresAt());
+        }));
+        userCacheService.evictById(userId);
+        tokens.put(userId, token);
+        schedule(userId, token, token.expiresAt().minus(leadTime));
+        log.debug("Refreshed Google access token of user {}", userId);
+        return token;
+    }
+
+    /**
+     * The user's stored token, when another instance has already refreshed it past the token
+     * known here and it is still usable; {@code null} when this instance should refresh it.
+     */
+    private GoogleToken storedTokenIfNewer(Long userId) {
+        GoogleToken known = tokens.get(userId);
+        GoogleToken stored = userRepository.findById(userId).map(GoogleToken::of).orElse(null);
+        if (known == null || stored == null || !stored.expiresAt().isAfter(known.expiresAt())
+                || stored.expiresAt().isBefore(LocalDateTime.now().plus(EXPIRY_SKEW))) {
+            return null;
+        }
+        return stored;
+    }
+
+    private void retryLater(Long userId, Exception e) {
+        GoogleToken token = tokens.get(userId);
+        if (token != null) {
+            schedule(userId, token, LocalDateTime.now().plus(retryDelay));
+        }
+        log.warn("Failed to refresh Google access token of user {}, retrying in {}", userId, retryDelay, e);
+    }
+
+    private void schedule(Long userId, GoogleToken token, LocalDateTime refreshAt) {
+        if (token.refreshToken() != null) {
+            queue.add(new QueuedRefresh(userId, token.expiresAt(), refreshAt));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+
+    private record QueuedRefresh(Long userId, LocalDateTime expiresAt, LocalDateTime refreshAt) {
+    }
+
+    private record GoogleToken(String accessToken, String refreshToken, LocalDateTime expiresAt) {
+
+        static GoogleToken of(User user) {
+            if (user.getGoogleAccessToken() == null || user.getTokenExpiryDate() == null) {
+                return null;
+            }
+            return new GoogleToken(user.getGoogleAccessToken(), user.getGoogleRefreshToken(), user.getTokenExpiryDate());
+        }
+
+        GoogleToken newer(GoogleToken other) {
+            return other.expiresAt().isAfter(expiresAt) ? other : this;
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package com.newton.taskmanagementapi.service;
 
+import com.newton.taskmanagementapi.dto.CursorPageResponse;
 import com.newton.taskmanagementapi.dto.TagDetailResponse;
 import com.newton.taskmanagementapi.dto.TagResponse;
 import com.newton.taskmanagementapi.dto.TaskResponse;
 import com.newton.taskmanagementapi.exception.ResourceNotFoundException;
 import com.newton.taskmanagementapi.model.Tag;
+import com.newton.taskmanagementapi.model.Task;
 import com.newton.taskmanagementapi.model.User;
 import com.newton.taskmanagementapi.repository.TagRepository;
+import com.newton.taskmanagementapi.repository.TagTaskCount;
+import com.newton.taskmanagementapi.repository.TaskCursor;
+import com.newton.taskmanagementapi.repository.TaskPageQuery;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.TaskSort;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,23 +35,38 @@ import java.util.stream.Collectors;
 public class TagService {
 
     private final TagRepository tagRepository;
+    private final TaskRepository taskRepository;
 
     @Transactional
     public Set<Tag> getOrCreateTags(Set<String> tagNames, User user) {
-        Set<Tag> tags = new HashSet<>();
-
-        for (String tagName : tagNames) {
-            String normalizedName = tagName.trim().toLowerCase();
-            Tag tag = tagRepository.findByNameAndUser(normalizedName, user)
-                    .orElseGet(() -> {
-                        Tag newTag = Tag.builder()
-                                .name(normalizedName)
-                                .user(user)
-                                .tasks(new HashSet<>())
-                                .build();
-                        return tagRepository.save(newTag);
-                    });
-            tags.add(tag);
+        return new HashSet<>(getOrCreateTagsByName(tagNames, user).values());
+    }
+
+    /**
+     * Resolves tag names with one query, then creates all missing tags with a single upsert and
+     * reads them back. A tag created concurrently by another request is picked up instead of
+     * failing the write. The result is keyed by normalized name.
+     */
+    @Transactional
+    public Map<String, Tag> getOrCreateTagsByName(Collection<String> tagNames, User user) {
+        Set<String> normalizedNames = tagNames.stream()
+                .map(this::normalizeName)
+                .collect(Collectors.toSet());
+        if (normalizedNames.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<String, Tag> tags = tagRepository.findByUserAndNameIn(user, normalizedNames).stream()
+                .collect(Collectors.toMap(Tag::getName, Function.identity(), (first, second) -> first, HashMap::new));
+
+        // Sorted, so concurrent upserts of overlapping names take their row locks in the same order
+        List<String> missing = normalizedNames.stream()
+                .filter(name -> !tags.containsKey(name))
+                .sorted()
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            tagRepository.insertMissing(user.getId(), missing);
+            tagRepository.findByUserAndNameIn(user, missing).forEach(tag -> tags.put(tag.getName(), tag));
         }
 
         return tags;
@@ -48,48 +75,103 @@ public class TagService {
     @Transactional(readOnly = true)
     public List<TagResponse> getAllTags(User user) {
         List<Tag> tags = tagRepository.findByUserOrderByNameAsc(user);
+        Map<Long, Long> taskCounts = countTasksByTag(tags);
 
         return tags.stream()
-                .map(this::mapToResponse)
+                .map(tag -> mapToResponse(tag, taskCounts))
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
-    public TagDetailResponse getTagById(Long tagId, User user) {
-        Tag tag = tagRepository.findByIdAndUserWithTasks(tagId, user)
+    public TagDetailResponse getTagById(Long tagId, User user, List<String> sort, String cursor, Integer limit) {
+        Tag tag = tagRepository.findByIdAndUser(tagId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Tag not found with id: " + tagId));
 
-        return mapToDetailResponse(tag);
+        TaskSort taskSort = TaskSort.parse(sort);
+        int pageSize = TaskPagination.resolveLimit(limit);
+
+        List<Task> tasks = taskRepository.findPage(TaskPageQuery.builder()
+                .user(user)
+                .tagId(tag.getId())
+                .sort(taskSort)
+                .after(TaskCursor.decode(cursor, taskSort))
+                .limit(pageSize + 1)
+                .build());
+
+        CursorPageResponse<TaskResponse> page = TaskPagination.toPage(tasks, taskSort, pageSize,
+                rows -> rows.stream().map(this::mapTaskSummary).collect(Collectors.toList()));
+
+        return mapToDetailResponse(tag, page);
+    }
+
+    @Transactional(readOnly = true)
+    public void requireTag(Long tagId, User user) {
+        if (!tagRepository.existsByIdAndUser(tagId, user)) {
+            throw new ResourceNotFoundException("Tag not found with id: " + tagId);
+        }
     }
 
-    public TagResponse mapToResponse(Tag tag) {
+    /**
+     * Resolves tag names, normalized the same way as on creation, to the ids of the user's tags.
+     * Names without a tag are absent from the result.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> findTagIds(Collection<String> tagNames, User user) {
+        Set<String> normalizedNames = tagNames.stream()
+                .map(this::normalizeName)
+                .collect(Collectors.toSet());
+
+        return tagRepository.findByUserAndNameIn(user, normalizedNames).stream()
+                .collect(Collectors.toMap(Tag::getName, Tag::getId));
+    }
+
+    public String normalizeName(String tagName) {
+        return tagName.trim().toLowerCase();
+    }
+
+    /**
+     * Counts the tasks of each tag with a single aggregate query instead of loading every
+     * task collection. Tags without tasks are absent from the result.
+     */
+    public Map<Long, Long> countTasksByTag(Collection<Tag> tags) {
+        if (tags.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        return tagRepository.countTasksByTags(tags).stream()
+                .collect(Collectors.toMap(TagTaskCount::getTagId, TagTaskCount::getTaskCount));
+    }
+
+    public TagResponse mapToResponse(Tag tag, Map<Long, Long> taskCounts) {
         return TagResponse.builder()
                 .id(tag.getId())
                 .name(tag.getName())
-                .taskCount(tag.getTasks() != null ? tag.getTasks().size() : 0)
+                .taskCount(taskCounts.getOrDefault(tag.getId(), 0L).intValue())
                 .build();
     }
 
-    private TagDetailResponse mapToDetailResponse(Tag tag) {
-        Set<TaskResponse> taskResponses = tag.getTasks().stream()
-                .map(task -> TaskResponse.builder()
-                        .id(task.getId())
-                        .title(task.getTitle())
-                        .description(task.getDescription())
-                        .dueDate(task.getDueDate())
-                        .completed(task.getCompleted())
-                        .googleEventId(task.getGoogleEventId())
-                        .createdAt(task.getCreatedAt())
-                        .updatedAt(task.getUpdatedAt())
-                        .build())
-                .collect(Collectors.toSet());
-
+    private TagDetailResponse mapToDetailResponse(Tag tag, CursorPageResponse<TaskResponse> tasks) {
         return TagDetailResponse.builder()
                 .id(tag.getId())
                 .name(tag.getName())
-                .tasks(taskResponses)
+                .tasks(tasks.getItems())
+                .nextCursor(tasks.getNextCursor())
+                .hasMore(tasks.getHasMore())
                 .createdAt(tag.getCreatedAt())
                 .updatedAt(tag.getUpdatedAt())
                 .build();
     }
+
+    private TaskResponse mapTaskSummary(Task task) {
+        return TaskResponse.builder()
+                .id(task.getId())
+                .title(task.getTitle())
+                .description(task.getDescription())
+                .dueDate(task.getDueDate())
+                .completed(task.getCompleted())
+                .googleEventId(task.getGoogleEventId())
+                .createdAt(task.getCreatedAt())
+                .updatedAt(task.getUpdatedAt())
+                .build();
+    }
 }
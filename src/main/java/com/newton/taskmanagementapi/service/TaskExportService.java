@@ -0,0 +1,151 @@
+package com.newton.taskmanagementapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newton.taskmanagementapi.dto.TaskExportRecord;
+import com.newton.taskmanagementapi.exception.BadRequestException;
+import com.newton.taskmanagementapi.repository.TaskExportRow;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Writes every task of a user to an output stream while reading them from a database cursor,
+ * so memory use does not depend on the number of tasks exported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaskExportService {
+
+    private static final String CSV_HEADER = "id,title,description,dueDate,completed,googleEventId,tags,createdAt,updatedAt";
+
+    private final TaskRepository taskRepository;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        CSV("csv", MediaType.parseMediaType("text/csv"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        public static Format fromName(String name) {
+            try {
+                return Format.valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + name);
+            }
+        }
+    }
+
+    /**
+     * Runs in its own read-only transaction because it is invoked from the async thread that
+     * writes a streaming response, outside the request's persistence context.
+     */
+    public void export(Long userId, Format format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+
+        try {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<TaskExportRow> rows = taskRepository.streamExportRows(userId)) {
+                    Iterator<TaskExportRow> iterator = rows.iterator();
+                    TaskExportRecord current = null;
+
+                    while (iterator.hasNext()) {
+                        TaskExportRow row = iterator.next();
+                        if (current == null || !current.getId().equals(row.getId())) {
+                            if (current != null) {
+                                write(current, format, writer);
+                            }
+                            current = toRecord(row);
+                        }
+                        if (row.getTagName() != null) {
+                            current.getTags().add(row.getTagName());
+                        }
+                    }
+
+                    if (current != null) {
+                        write(current, format, writer);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+    }
+
+    private TaskExportRecord toRecord(TaskExportRow row) {
+        return TaskExportRecord.builder()
+                .id(row.getId())
+                .title(row.getTitle())
+                .description(row.getDescription())
+                .dueDate(row.getDueDate())
+                .completed(row.getCompleted())
+                .googleEventId(row.getGoogleEventId())
+                .tags(new ArrayList<>())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .build();
+    }
+
+    private void write(TaskExportRecord record, Format format, Writer writer) throws IOException {
+        if (format == Format.NDJSON) {
+            writer.write(objectMapper.writeValueAsString(record));
+        } else {
+            writer.write(String.join(",",
+                    csv(record.getId()),
+                    csv(record.getTitle()),
+                    csv(record.getDescription()),
+                    csv(record.getDueDate()),
+                    csv(record.getCompleted()),
+                    csv(record.getGoogleEventId()),
+                    csv(String.join(";", record.getTags())),
+                    csv(record.getCreatedAt()),
+                    csv(record.getUpdatedAt())));
+        }
+        writer.write('\n');
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,97 @@
+package com.newton.taskmanagementapi.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.newton.taskmanagementapi.dto.RawJson;
+import com.newton.taskmanagementapi.dto.TaskResponse;
+import com.newton.taskmanagementapi.model.Task;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Holds the JSON of each task's own fields, everything but its tags, as UTF-8 bytes keyed by task
+ * id and update timestamp. Every write to a task moves the timestamp, so a listing never sees a
+ * stale entry; superseded entries are simply no longer read and give way by size or age. The
+ * bound counts the JSON bytes only.
+ */
+@Service
+public class TaskJsonCache implements MeterBinder {
+
+    private final ObjectWriter writer;
+    private final Cache<Key, RawJson> fields;
+
+    public TaskJsonCache(ObjectMapper objectMapper,
+                         @Value("${app.task-json-cache.max-size:64MB}") DataSize maxSize,
+                         @Value("${app.task-json-cache.ttl:1h}") Duration ttl) {
+        // Same configuration as the API's responses, so cached fields match a serialized TaskResponse
+        this.writer = objectMapper.copy()
+                .addMixIn(TaskResponse.class, WithoutTags.class)
+                .writerFor(TaskResponse.class);
+        this.fields = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, RawJson json) -> json.length())
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the task's fields without the enclosing braces, serializing them on a miss. Tasks
+     * that were never saved have no timestamp yet and are serialized without caching.
+     */
+    public RawJson get(Task task) {
+        if (task.getUpdatedAt() == null) {
+            return serialize(task);
+        }
+        return fields.get(new Key(task.getId(), task.getUpdatedAt()), key -> serialize(task));
+    }
+
+    public long size() {
+        return fields.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, fields, "task-json");
+    }
+
+    private RawJson serialize(Task task) {
+        TaskResponse response = TaskResponse.builder()
+                .id(task.getId())
+                .title(task.getTitle())
+                .description(task.getDescription())
+                .dueDate(task.getDueDate())
+                .completed(task.getCompleted())
+                .googleEventId(task.getGoogleEventId())
+                .createdAt(task.getCreatedAt())
+                .updatedAt(task.getUpdatedAt())
+                .build();
+
+        byte[] json;
+        try {
+            json = writer.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize task " + task.getId(), e);
+        }
+        return new RawJson(Arrays.copyOfRange(json, 1, json.length - 1));
+    }
+
+    private record Key(Long taskId, LocalDateTime updatedAt) {
+    }
+
+    @JsonIgnoreProperties("tags")
+    private abstract static class WithoutTags {
+    }
+}
@@ -0,0 +1,50 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.dto.CursorPageResponse;
+import com.newton.taskmanagementapi.exception.BadRequestException;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.repository.TaskCursor;
+import com.newton.taskmanagementapi.repository.TaskSort;
+
+import java.util.List;
+import java.util.function.Function;
+
+final class TaskPagination {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 200;
+
+    private TaskPagination() {
+    }
+
+    static int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Builds a page from rows fetched with one extra row of look-ahead, which tells us whether
+     * another page exists without a separate count query.
+     */
+    static <R> CursorPageResponse<R> toPage(List<Task> rows, TaskSort sort, int limit,
+                                            Function<List<Task>, List<R>> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<Task> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = hasMore
+                ? TaskCursor.of(sort, page.get(page.size() - 1)).encode()
+                : null;
+
+        return CursorPageResponse.<R>builder()
+                .items(mapper.apply(page))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .limit(limit)
+                .build();
+    }
+}
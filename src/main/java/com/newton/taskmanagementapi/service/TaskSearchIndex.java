@@ -0,0 +1,232 @@
+package com.newton.taskmanagementapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.TaskSearchRow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index over task titles and descriptions, partitioned by user. A user's
+ * index is built from one query on their first search and then kept current by
+ * {@link TaskService}, which reports every task write after its transaction commits. Each index
+ * follows the user's data version as described in {@link VersionedIndex}, and only recently
+ * searched users are held. Being plain Java, it behaves the same on H2 and Postgres.
+ */
+@Service
+@Slf4j
+public class TaskSearchIndex implements DataVersionListener {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    private final TaskRepository taskRepository;
+    private final DataVersionService dataVersionService;
+    private final Cache<Long, UserIndex> indexes;
+    private final Counter builds;
+
+    public TaskSearchIndex(TaskRepository taskRepository,
+                           DataVersionService dataVersionService,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.search.max-users:10000}") long maxUsers,
+                           @Value("${app.search.ttl:30m}") Duration ttl) {
+        this.taskRepository = taskRepository;
+        this.dataVersionService = dataVersionService;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .build();
+        this.builds = Counter.builder("task.index.builds")
+                .description("Per-user task indexes built from the database, by index")
+                .tag("index", "search")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the ids of the user's tasks containing every query term, best match first. Each
+     * term also matches longer words it is a prefix of, at a lower weight than an exact match.
+     */
+    public List<Long> search(Long userId, String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        UserIndex index = indexes.get(userId, id -> new UserIndex());
+        long version = dataVersionService.getVersion(userId);
+        return index.read(version, () -> load(userId), () -> index.search(terms, limit));
+    }
+
+    public void taskSaved(Task task) {
+        Long userId = task.getUser().getId();
+        Long taskId = task.getId();
+        long changeSeq = task.getChangeSeq();
+        String title = task.getTitle();
+        String description = task.getDescription();
+        AfterCommit.run(() -> {
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null) {
+                index.apply(changeSeq, () -> index.put(taskId, title, description));
+            }
+        });
+    }
+
+    public void taskDeleted(Long userId, Long taskId, long changeSeq) {
+        AfterCommit.run(() -> {
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null) {
+                index.apply(changeSeq, () -> index.remove(taskId));
+            }
+        });
+    }
+
+    @Override
+    public void versionAdvanced(Long userId, long version) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index != null) {
+            index.advanceTo(version);
+        }
+    }
+
+    private List<TaskSearchRow> load(Long userId) {
+        builds.increment();
+        long start = System.nanoTime();
+        List<TaskSearchRow> rows = taskRepository.findSearchRows(userId);
+        log.debug("Read {} tasks of user {} for search in {} ms",
+                rows.size(), userId, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(TOKEN_SEPARATOR.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private record Posting(int titleFrequency, int descriptionFrequency) {
+
+        double weight() {
+            return TITLE_WEIGHT * titleFrequency + descriptionFrequency;
+        }
+    }
+
+    /**
+     * Only ever called through {@link VersionedIndex#read} and {@link VersionedIndex#apply}, which
+     * hold the index's lock.
+     */
+    private static final class UserIndex extends VersionedIndex<TaskSearchRow> {
+
+        private TreeMap<String, Map<Long, Posting>> postings = new TreeMap<>();
+        private Map<Long, Set<String>> termsByTask = new HashMap<>();
+
+        @Override
+        protected void clear() {
+            postings = new TreeMap<>();
+            termsByTask = new HashMap<>();
+        }
+
+        @Override
+        protected void add(TaskSearchRow row) {
+            put(row.getId(), row.getTitle(), row.getDescription());
+        }
+
+        void put(Long taskId, String title, String description) {
+            remove(taskId);
+
+            Map<String, int[]> frequencies = new HashMap<>();
+            tokenize(title).forEach(term -> frequencies.computeIfAbsent(term, t -> new int[2])[0]++);
+            tokenize(description).forEach(term -> frequencies.computeIfAbsent(term, t -> new int[2])[1]++);
+
+            frequencies.forEach((term, counts) -> postings
+                    .computeIfAbsent(term, t -> new HashMap<>())
+                    .put(taskId, new Posting(counts[0], counts[1])));
+            termsByTask.put(taskId, frequencies.keySet());
+        }
+
+        void remove(Long taskId) {
+            Set<String> terms = termsByTask.remove(taskId);
+            if (terms == null) {
+                return;
+            }
+
+            for (String term : terms) {
+                Map<Long, Posting> tasks = postings.get(term);
+                tasks.remove(taskId);
+                if (tasks.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        List<Long> search(List<String> queryTerms, int limit) {
+            Map<Long, Double> scores = null;
+
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = score(queryTerm);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Every query term must match, so keep only tasks scored by all of them
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((taskId, score) -> score + termScores.get(taskId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+
+        private Map<Long, Double> score(String queryTerm) {
+            Map<Long, Double> scores = new HashMap<>();
+            int documentCount = termsByTask.size();
+
+            for (Map.Entry<String, Map<Long, Posting>> entry : postings.tailMap(queryTerm, true).entrySet()) {
+                String term = entry.getKey();
+                if (!term.startsWith(queryTerm)) {
+                    break;
+                }
+
+                Map<Long, Posting> tasks = entry.getValue();
+                double idf = Math.log(1 + (double) documentCount / tasks.size());
+                double match = term.equals(queryTerm) ? 1.0 : PREFIX_WEIGHT;
+                tasks.forEach((taskId, posting) ->
+                        scores.merge(taskId, match * idf * posting.weight(), Double::sum));
+            }
+            return scores;
+        }
+    }
+}
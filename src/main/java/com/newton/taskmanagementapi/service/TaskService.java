@@ -1,21 +1,50 @@
 package com.newton.taskmanagementapi.service;
 
+import com.newton.taskmanagementapi.dto.BulkTaskOperation;
+import com.newton.taskmanagementapi.dto.BulkTaskResponse;
 import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.CursorPageResponse;
+import com.newton.taskmanagementapi.dto.TagResponse;
+import com.newton.taskmanagementapi.dto.TaskChangesResponse;
+import com.newton.taskmanagementapi.dto.TaskJson;
 import com.newton.taskmanagementapi.dto.TaskResponse;
 import com.newton.taskmanagementapi.dto.UpdateTaskRequest;
+import com.newton.taskmanagementapi.exception.BadRequestException;
 import com.newton.taskmanagementapi.exception.ResourceNotFoundException;
 import com.newton.taskmanagementapi.model.Tag;
 import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.TaskTombstone;
 import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.CalendarOutboxRepository;
+import com.newton.taskmanagementapi.repository.ChangeCursor;
+import com.newton.taskmanagementapi.repository.TagMatch;
+import com.newton.taskmanagementapi.repository.TaskCursor;
+import com.newton.taskmanagementapi.repository.TaskPageQuery;
 import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.TaskSort;
+import com.newton.taskmanagementapi.repository.TaskTombstoneRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,58 +52,169 @@ import java.util.stream.Collectors;
 @Slf4j
 public class TaskService {
 
+    /**
+     * Largest tag match resolved by the index that is bound into the page query. Larger matches,
+     * typically broad {@code none} filters, are evaluated in SQL instead.
+     */
+    static final int MAX_INDEXED_MATCHES = 5000;
+
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     private final TaskRepository taskRepository;
+    private final TaskTombstoneRepository taskTombstoneRepository;
     private final TagService tagService;
-    private final GoogleCalenderService googleCalendarService;
+    private final TaskTagIndex taskTagIndex;
+    private final TaskSearchIndex taskSearchIndex;
+    private final DataVersionService dataVersionService;
+    private final CalendarOutboxRepository calendarOutboxRepository;
+    private final TaskJsonCache taskJsonCache;
 
     @Transactional
     public TaskResponse createTask(CreateTaskRequest request, User user) {
-        Task task = Task.builder()
-                .title(request.getTitle())
-                .description(request.getDescription())
-                .dueDate(request.getDueDate())
-                .completed(request.getCompleted() != null ? request.getCompleted() : false)
-                .user(user)
-                .tags(new HashSet<>())
-                .build();
-
-        // Handle tags
-        if (request.getTags() != null && !request.getTags().isEmpty()) {
-            Set<Tag> tags = tagService.getOrCreateTags(request.getTags(), user);
-            tags.forEach(task::addTag);
-        }
+        Task task = newTask(request, user, names -> tagService.getOrCreateTags(names, user));
 
+        task.setChangeSeq(dataVersionService.bump(user.getId()));
         task = taskRepository.save(task);
+        taskTagIndex.taskSaved(user.getId(), task.getId(), tagIds(task), task.getChangeSeq());
+        taskSearchIndex.taskSaved(task);
 
-        // Sync with Google Calendar if due date is set
+        // The calendar event is created by the outbox dispatcher once this transaction commits
         if (task.getDueDate() != null) {
-            try {
-                String eventId = googleCalendarService.createCalendarEvent(task, user);
-                task.setGoogleEventId(eventId);
-                task = taskRepository.save(task);
-            } catch (Exception e) {
-                log.error("Failed to create calendar event for task {}", task.getId(), e);
-            }
+            calendarOutboxRepository.insertSyncs(user.getId(), List.of(task.getId()), LocalDateTime.now());
         }
 
         return mapToResponse(task);
     }
 
     @Transactional(readOnly = true)
-    public List<TaskResponse> getAllTasks(User user, Boolean completed, List<String> tags) {
-        List<Task> tasks;
+    public CursorPageResponse<TaskResponse> getAllTasks(User user, Boolean completed, List<String> tags, String match,
+                                                        List<String> sort, String cursor, Integer limit) {
+        return findPage(user, completed, tags, match, sort, cursor, limit, this::mapToResponses);
+    }
+
+    /**
+     * Same page as {@link #getAllTasks}, rendered for the listing endpoint: each task's fields
+     * come from the task JSON cache instead of being mapped and serialized again.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TaskJson> getAllTasksAsJson(User user, Boolean completed, List<String> tags, String match,
+                                                          List<String> sort, String cursor, Integer limit) {
+        return findPage(user, completed, tags, match, sort, cursor, limit, this::mapToJson);
+    }
+
+    private <R> CursorPageResponse<R> findPage(User user, Boolean completed, List<String> tags, String match,
+                                               List<String> sort, String cursor, Integer limit,
+                                               Function<List<Task>, List<R>> mapper) {
+        TaskSort taskSort = TaskSort.parse(sort);
+        TagMatch tagMatch = TagMatch.fromName(match);
+        int pageSize = TaskPagination.resolveLimit(limit);
+
+        TaskPageQuery.TaskPageQueryBuilder query = TaskPageQuery.builder()
+                .user(user)
+                .completed(completed)
+                .sort(taskSort)
+                .after(TaskCursor.decode(cursor, taskSort))
+                .limit(pageSize + 1);
 
         if (tags != null && !tags.isEmpty()) {
-            tasks = taskRepository.findByUserAndTagNames(user, tags);
-        } else if (completed != null) {
-            tasks = taskRepository.findByUserAndCompletedOrderByDueDateAsc(user, completed);
-        } else {
-            tasks = taskRepository.findByUserOrderByDueDateAsc(user);
+            List<String> tagNames = tags.stream()
+                    .map(tagService::normalizeName)
+                    .distinct()
+                    .collect(Collectors.toList());
+            Roaring64NavigableMap matches = matchTags(user, tagNames, tagMatch);
+            if (matches.isEmpty()) {
+                return TaskPagination.toPage(Collections.emptyList(), taskSort, pageSize, mapper);
+            }
+
+            if (matches.getLongCardinality() <= MAX_INDEXED_MATCHES) {
+                query.taskIds(Arrays.stream(matches.toArray()).boxed().collect(Collectors.toList()));
+            } else {
+                query.tagNames(tagNames).tagMatch(tagMatch);
+            }
         }
 
-        return tasks.stream()
-                .map(this::mapToResponse)
+        List<Task> tasks = taskRepository.findPage(query.build());
+
+        return TaskPagination.toPage(tasks, taskSort, pageSize, mapper);
+    }
+
+    /**
+     * Returns the tasks written and deleted since the sync cursor, oldest change first. Both are
+     * ordered by (sequence number, task id), which is unique across the two because a deleted task
+     * no longer has a row, so the streams are merged on it and cut at the page size.
+     */
+    @Transactional(readOnly = true)
+    public TaskChangesResponse getChanges(User user, String since, Integer limit) {
+        ChangeCursor cursor = ChangeCursor.decode(since);
+        int pageSize = TaskPagination.resolveLimit(limit);
+        Pageable lookAhead = PageRequest.of(0, pageSize + 1);
+
+        List<Task> tasks = taskRepository.findChangesAfter(
+                user, cursor.getSequence(), cursor.getTaskId(), lookAhead);
+        List<TaskTombstone> tombstones = taskTombstoneRepository.findChangesAfter(
+                user.getId(), cursor.getSequence(), cursor.getTaskId(), lookAhead);
+
+        List<Task> updated = new ArrayList<>();
+        List<TaskTombstone> deleted = new ArrayList<>();
+        int taskIndex = 0;
+        int tombstoneIndex = 0;
+        ChangeCursor last = cursor;
+        while (updated.size() + deleted.size() < pageSize
+                && (taskIndex < tasks.size() || tombstoneIndex < tombstones.size())) {
+            boolean nextIsTask = tombstoneIndex == tombstones.size()
+                    || (taskIndex < tasks.size() && changeOf(tasks.get(taskIndex)).isBefore(
+                    tombstones.get(tombstoneIndex).getChangeSeq(), tombstones.get(tombstoneIndex).getTaskId()));
+            if (nextIsTask) {
+                Task task = tasks.get(taskIndex++);
+                updated.add(task);
+                last = changeOf(task);
+            } else {
+                TaskTombstone tombstone = tombstones.get(tombstoneIndex++);
+                deleted.add(tombstone);
+                last = new ChangeCursor(tombstone.getChangeSeq(), tombstone.getTaskId());
+            }
+        }
+
+        boolean hasMore = taskIndex < tasks.size() || tombstoneIndex < tombstones.size();
+
+        return TaskChangesResponse.builder()
+                .updated(mapToResponses(updated))
+                .deleted(deleted.stream()
+                        .map(tombstone -> TaskChangesResponse.DeletedTask.builder()
+                                .id(tombstone.getTaskId())
+                                .deletedAt(tombstone.getDeletedAt())
+                                .build())
+                        .collect(Collectors.toList()))
+                .nextCursor(last.encode())
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Ranks the user's tasks against the query with the in-memory search index, then loads only
+     * the matching tasks.
+     */
+    @Transactional(readOnly = true)
+    public List<TaskResponse> searchTasks(User user, String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be blank");
+        }
+
+        int resultLimit = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        List<Long> rankedIds = taskSearchIndex.search(user.getId(), query, resultLimit);
+        if (rankedIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Task> tasksById = taskRepository.findByUserAndIdIn(user, rankedIds).stream()
+                .collect(Collectors.toMap(Task::getId, Function.identity()));
+        List<Task> tasks = rankedIds.stream()
+                .map(tasksById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+
+        return mapToResponses(tasks);
     }
 
     @Transactional(readOnly = true)
@@ -85,11 +225,226 @@ public class TaskService {
         return mapToResponse(task);
     }
 
+    /**
+     * Returns the update timestamp that validates conditional GETs of the task, without loading it.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> getTaskUpdatedAt(Long taskId, User user) {
+        return taskRepository.findUpdatedAtByIdAndUser(taskId, user);
+    }
+
     @Transactional
     public TaskResponse updateTask(Long taskId, UpdateTaskRequest request, User user) {
+        // Bumped before the task is read, so the read sees any event id the outbox dispatcher stored
+        long changeSeq = dataVersionService.bump(user.getId());
+        Task task = taskRepository.findByIdAndUser(taskId, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + taskId));
+
+        boolean calendarUpdateNeeded = applyUpdate(task, request, names -> tagService.getOrCreateTags(names, user));
+
+        task.setChangeSeq(changeSeq);
+        task = taskRepository.save(task);
+        taskTagIndex.taskSaved(user.getId(), task.getId(), tagIds(task), task.getChangeSeq());
+        taskSearchIndex.taskSaved(task);
+
+        if (needsCalendarSync(task, calendarUpdateNeeded)) {
+            calendarOutboxRepository.insertSyncs(user.getId(), List.of(task.getId()), LocalDateTime.now());
+        }
+
+        return mapToResponse(task);
+    }
+
+    /**
+     * Applies a batch of operations in one transaction. Creates and field updates go through the
+     * persistence context, whose statements Hibernate sends in JDBC batches; completions and
+     * deletions are set-based statements over all their ids. The batch shares one change sequence
+     * number, and fails as a whole if any referenced task is missing. Calendar operations are
+     * queued in the outbox with one statement per kind.
+     */
+    @Transactional
+    public BulkTaskResponse applyBulk(List<BulkTaskOperation> operations, User user) {
+        List<CreateTaskRequest> creates = new ArrayList<>();
+        Map<Long, UpdateTaskRequest> updates = new LinkedHashMap<>();
+        Set<Long> completes = new LinkedHashSet<>();
+        Set<Long> deletes = new LinkedHashSet<>();
+        Set<Long> referencedIds = new HashSet<>();
+
+        for (BulkTaskOperation operation : operations) {
+            if (operation.getOp() == BulkTaskOperation.Type.CREATE) {
+                if (operation.getCreate() == null) {
+                    throw new BadRequestException("CREATE operations require a create payload");
+                }
+                creates.add(operation.getCreate());
+                continue;
+            }
+
+            if (operation.getId() == null) {
+                throw new BadRequestException(operation.getOp() + " operations require an id");
+            }
+            if (!referencedIds.add(operation.getId())) {
+                throw new BadRequestException("Task " + operation.getId() + " appears in more than one operation");
+            }
+
+            switch (operation.getOp()) {
+                case UPDATE -> {
+                    if (operation.getUpdate() == null) {
+                        throw new BadRequestException("UPDATE operations require an update payload");
+                    }
+                    updates.put(operation.getId(), operation.getUpdate());
+                }
+                case COMPLETE -> completes.add(operation.getId());
+                case DELETE -> deletes.add(operation.getId());
+                default -> throw new IllegalStateException("Unexpected operation " + operation.getOp());
+            }
+        }
+
+        // Bumped before any task is read, so the reads see event ids the outbox dispatcher stored
+        long changeSeq = dataVersionService.bump(user.getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        Set<Long> setBasedIds = new HashSet<>(completes);
+        setBasedIds.addAll(deletes);
+        if (!setBasedIds.isEmpty() && taskRepository.countByUserAndIdIn(user, setBasedIds) != setBasedIds.size()) {
+            throw new ResourceNotFoundException("One or more tasks were not found");
+        }
+
+        List<Task> updatedTasks = updates.isEmpty()
+                ? Collections.emptyList()
+                : taskRepository.findWithTagsByUserAndIdIn(user, updates.keySet());
+        if (updatedTasks.size() != updates.size()) {
+            throw new ResourceNotFoundException("One or more tasks were not found");
+        }
+
+        Set<String> tagNames = new HashSet<>();
+        creates.stream().filter(request -> request.getTags() != null).forEach(request -> tagNames.addAll(request.getTags()));
+        updates.values().stream().filter(request -> request.getTags() != null).forEach(request -> tagNames.addAll(request.getTags()));
+        Map<String, Tag> tagsByName = tagService.getOrCreateTagsByName(tagNames, user);
+        Function<Set<String>, Set<Tag>> tagResolver = names -> names.stream()
+                .map(name -> tagsByName.get(tagService.normalizeName(name)))
+                .collect(Collectors.toSet());
+
+        Set<Long> calendarSyncs = new LinkedHashSet<>();
+
+        if (!deletes.isEmpty()) {
+            calendarOutboxRepository.insertDeletes(user.getId(), deletes, now);
+            taskTombstoneRepository.insertForTasks(user.getId(), deletes, changeSeq, now);
+            taskRepository.deleteTagLinks(deletes);
+            taskRepository.deleteByUserAndIds(user, deletes);
+            deletes.forEach(taskId -> {
+                taskTagIndex.taskDeleted(user.getId(), taskId, changeSeq);
+                taskSearchIndex.taskDeleted(user.getId(), taskId, changeSeq);
+            });
+        }
+
+        if (!completes.isEmpty()) {
+            taskRepository.completeAll(user, completes, changeSeq, now);
+            taskRepository.findByUserAndIdInAndGoogleEventIdIsNotNull(user, completes)
+                    .forEach(task -> calendarSyncs.add(task.getId()));
+        }
+
+        for (Task task : updatedTasks) {
+            boolean calendarUpdateNeeded = applyUpdate(task, updates.get(task.getId()), tagResolver);
+            task.setChangeSeq(changeSeq);
+            if (needsCalendarSync(task, calendarUpdateNeeded)) {
+                calendarSyncs.add(task.getId());
+            }
+        }
+
+        List<Task> createdTasks = creates.stream()
+                .map(request -> newTask(request, user, tagResolver))
+                .collect(Collectors.toList());
+        createdTasks.forEach(task -> task.setChangeSeq(changeSeq));
+        createdTasks = taskRepository.saveAll(createdTasks);
+        for (Task task : createdTasks) {
+            if (needsCalendarSync(task, false)) {
+                calendarSyncs.add(task.getId());
+            }
+        }
+        if (!calendarSyncs.isEmpty()) {
+            calendarOutboxRepository.insertSyncs(user.getId(), calendarSyncs, now);
+        }
+
+        for (Task task : updatedTasks) {
+            taskTagIndex.taskSaved(user.getId(), task.getId(), tagIds(task), task.getChangeSeq());
+            taskSearchIndex.taskSaved(task);
+        }
+        for (Task task : createdTasks) {
+            taskTagIndex.taskSaved(user.getId(), task.getId(), tagIds(task), task.getChangeSeq());
+            taskSearchIndex.taskSaved(task);
+        }
+
+        return BulkTaskResponse.builder()
+                .created(createdTasks.stream().map(Task::getId).collect(Collectors.toList()))
+                .updated(updatedTasks.size())
+                .completed(completes.size())
+                .deleted(deletes.size())
+                .build();
+    }
+
+    private Task newTask(CreateTaskRequest request, User user, Function<Set<String>, Set<Tag>> tagResolver) {
+        Task task = Task.builder()
+                .title(request.getTitle())
+                .description(request.getDescription())
+                .dueDate(request.getDueDate())
+                .completed(request.getCompleted() != null ? request.getCompleted() : false)
+                .user(user)
+                .tags(new HashSet<>())
+                .build();
+
+        if (request.getTags() != null && !request.getTags().isEmpty()) {
+            tagResolver.apply(request.getTags()).forEach(task::addTag);
+        }
+        return task;
+    }
+
+    /**
+     * Whether the task's calendar event has to be created, because the task has a due date but no
+     * event yet, or updated, because the task changed in a way that renders a different event.
+     */
+    private boolean needsCalendarSync(Task task, boolean calendarUpdateNeeded) {
+        if (task.getGoogleEventId() == null) {
+            return task.getDueDate() != null;
+        }
+        return calendarUpdateNeeded && !GoogleCalenderService.fingerprint(task).equals(task.getCalendarHash());
+    }
+
+    @Transactional
+    public void deleteTask(Long taskId, User user) {
+        // Bumped before the task is read, so the read sees any event id the outbox dispatcher stored
+        long changeSeq = dataVersionService.bump(user.getId());
         Task task = taskRepository.findByIdAndUser(taskId, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + taskId));
 
+        // A task with a due date but no event id may still have its event created by a queued SYNC
+        if (task.getGoogleEventId() != null || task.getDueDate() != null) {
+            calendarOutboxRepository.insertDeletes(user.getId(), List.of(taskId), LocalDateTime.now());
+        }
+
+        task.clearTags();
+        taskRepository.delete(task);
+        taskTombstoneRepository.save(TaskTombstone.builder()
+                .userId(user.getId())
+                .taskId(taskId)
+                .changeSeq(changeSeq)
+                .build());
+        taskTagIndex.taskDeleted(user.getId(), taskId, changeSeq);
+        taskSearchIndex.taskDeleted(user.getId(), taskId, changeSeq);
+    }
+
+    private Roaring64NavigableMap matchTags(User user, List<String> tagNames, TagMatch tagMatch) {
+        Map<String, Long> tagIds = tagService.findTagIds(tagNames, user);
+
+        // A tag that does not exist is carried by no task, so no task can carry all of them
+        if (tagMatch == TagMatch.ALL && tagIds.size() < tagNames.size()) {
+            return new Roaring64NavigableMap();
+        }
+        return taskTagIndex.match(user.getId(), tagIds.values(), tagMatch);
+    }
+
+    /**
+     * Applies the non-null fields of the request and reports whether the calendar event needs an update.
+     */
+    private boolean applyUpdate(Task task, UpdateTaskRequest request, Function<Set<String>, Set<Tag>> tagResolver) {
         boolean calendarUpdateNeeded = false;
 
         if (request.getTitle() != null) {
@@ -114,53 +469,73 @@ public class TaskService {
 
         // Handle tags update
         if (request.getTags() != null) {
+            // Collection changes alone do not update the row, so touch it to move the task's ETag
+            task.setUpdatedAt(LocalDateTime.now());
             task.clearTags();
             if (!request.getTags().isEmpty()) {
-                Set<Tag> tags = tagService.getOrCreateTags(request.getTags(), user);
-                tags.forEach(task::addTag);
+                tagResolver.apply(request.getTags()).forEach(task::addTag);
             }
         }
 
-        task = taskRepository.save(task);
+        return calendarUpdateNeeded;
+    }
 
-        if (calendarUpdateNeeded && task.getGoogleEventId() != null) {
-            try {
-                googleCalendarService.updateCalendarEvent(task, user);
-            } catch (Exception e) {
-                log.error("Failed to update calendar event for task {}", task.getId(), e);
-            }
-        } else if (task.getDueDate() != null && task.getGoogleEventId() == null) {
-            try {
-                String eventId = googleCalendarService.createCalendarEvent(task, user);
-                task.setGoogleEventId(eventId);
-                task = taskRepository.save(task);
-            } catch (Exception e) {
-                log.error("Failed to create calendar event for task {}", task.getId(), e);
-            }
-        }
+    private ChangeCursor changeOf(Task task) {
+        return new ChangeCursor(task.getChangeSeq(), task.getId());
+    }
 
-        return mapToResponse(task);
+    private Set<Long> tagIds(Task task) {
+        return task.getTags().stream()
+                .map(Tag::getId)
+                .collect(Collectors.toSet());
     }
 
-    @Transactional
-    public void deleteTask(Long taskId, User user) {
-        Task task = taskRepository.findByIdAndUser(taskId, user)
-                .orElseThrow(() -> new ResourceNotFoundException("Task not found with id: " + taskId));
+    private TaskResponse mapToResponse(Task task) {
+        return mapToResponse(task, tagService.countTasksByTag(task.getTags()));
+    }
 
-        // Delete from Google Calendar
-        if (task.getGoogleEventId() != null) {
-            try {
-                googleCalendarService.deleteCalendarEvent(task.getGoogleEventId(), user);
-            } catch (Exception e) {
-                log.error("Failed to delete calendar event for task {}", task.getId(), e);
-            }
+    /**
+     * Maps a page of tasks with a constant number of statements: at most one to initialize the
+     * tags that are not in the second-level cache, batched across the page, and one to count the
+     * tasks of every tag involved.
+     */
+    private List<TaskResponse> mapToResponses(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        task.clearTags();
-        taskRepository.delete(task);
+        Map<Long, Long> taskCounts = countTasksByTag(tasks);
+
+        return tasks.stream()
+                .map(task -> mapToResponse(task, taskCounts))
+                .collect(Collectors.toList());
     }
 
-    private TaskResponse mapToResponse(Task task) {
+    /**
+     * Like {@link #mapToResponses}, with the same statements, but each task's fields are taken
+     * from the task JSON cache; only the tags and their counts are mapped per request.
+     */
+    private List<TaskJson> mapToJson(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Long> taskCounts = countTasksByTag(tasks);
+
+        return tasks.stream()
+                .map(task -> new TaskJson(taskJsonCache.get(task), mapTags(task, taskCounts)))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, Long> countTasksByTag(List<Task> tasks) {
+        tasks.forEach(task -> Hibernate.initialize(task.getTags()));
+        Set<Tag> tags = tasks.stream()
+                .flatMap(task -> task.getTags().stream())
+                .collect(Collectors.toSet());
+        return tagService.countTasksByTag(tags);
+    }
+
+    private TaskResponse mapToResponse(Task task, Map<Long, Long> taskCounts) {
         return TaskResponse.builder()
                 .id(task.getId())
                 .title(task.getTitle())
@@ -168,11 +543,15 @@ public class TaskService {
                 .dueDate(task.getDueDate())
                 .completed(task.getCompleted())
                 .googleEventId(task.getGoogleEventId())
-                .tags(task.getTags().stream()
-                        .map(tagService::mapToResponse)
-                        .collect(Collectors.toSet()))
+                .tags(mapTags(task, taskCounts))
                 .createdAt(task.getCreatedAt())
                 .updatedAt(task.getUpdatedAt())
                 .build();
     }
+
+    private Set<TagResponse> mapTags(Task task, Map<Long, Long> taskCounts) {
+        return task.getTags().stream()
+                .map(tag -> tagService.mapToResponse(tag, taskCounts))
+                .collect(Collectors.toSet());
+    }
 }
@@ -0,0 +1,186 @@
+package com.newton.taskmanagementapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.newton.taskmanagementapi.repository.TagMatch;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.TaskTagLink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user inverted index from tag id to the compressed bitmap of the ids of its tasks. A user's
+ * index is built from one query on first use and then kept current by {@link TaskService}, which
+ * reports every task write here after its transaction commits. Each index follows the user's
+ * data version as described in {@link VersionedIndex}. The query runs outside the cache's own
+ * locks, so a virtual thread waiting on the database never pins its carrier.
+ */
+@Service
+@Slf4j
+public class TaskTagIndex implements DataVersionListener {
+
+    private final TaskRepository taskRepository;
+    private final DataVersionService dataVersionService;
+    private final Cache<Long, UserIndex> indexes;
+    private final Counter builds;
+
+    public TaskTagIndex(TaskRepository taskRepository,
+                        DataVersionService dataVersionService,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.tag-index.max-users:10000}") long maxUsers,
+                        @Value("${app.tag-index.ttl:30m}") Duration ttl) {
+        this.taskRepository = taskRepository;
+        this.dataVersionService = dataVersionService;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(ttl)
+                .build();
+        this.builds = Counter.builder("task.index.builds")
+                .description("Per-user task indexes built from the database, by index")
+                .tag("index", "tag")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the ids of the user's tasks whose tags match the given tag ids. The result is a copy
+     * the caller may modify.
+     */
+    public Roaring64NavigableMap match(Long userId, Collection<Long> tagIds, TagMatch match) {
+        UserIndex index = indexes.get(userId, id -> new UserIndex());
+        long version = dataVersionService.getVersion(userId);
+        return index.read(version, () -> load(userId), () -> index.match(tagIds, match));
+    }
+
+    /**
+     * Reports a saved task along with the data version its write was given.
+     */
+    public void taskSaved(Long userId, Long taskId, Collection<Long> tagIds, long changeSeq) {
+        AfterCommit.run(() -> {
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null) {
+                index.apply(changeSeq, () -> index.put(taskId, tagIds));
+            }
+        });
+    }
+
+    public void taskDeleted(Long userId, Long taskId, long changeSeq) {
+        AfterCommit.run(() -> {
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null) {
+                index.apply(changeSeq, () -> index.remove(taskId));
+            }
+        });
+    }
+
+    public void evict(Long userId) {
+        indexes.invalidate(userId);
+    }
+
+    @Override
+    public void versionAdvanced(Long userId, long version) {
+        UserIndex index = indexes.getIfPresent(userId);
+        if (index != null) {
+            index.advanceTo(version);
+        }
+    }
+
+    private List<TaskTagLink> load(Long userId) {
+        builds.increment();
+        List<TaskTagLink> links = taskRepository.findTaskTagLinks(userId);
+        log.debug("Built tag index for user {} from {} rows", userId, links.size());
+        return links;
+    }
+
+    /**
+     * Only ever called through {@link VersionedIndex#read} and {@link VersionedIndex#apply}, which
+     * hold the index's lock.
+     */
+    private static final class UserIndex extends VersionedIndex<TaskTagLink> {
+
+        private Roaring64NavigableMap tasks = new Roaring64NavigableMap();
+        private Map<Long, Roaring64NavigableMap> tasksByTag = new HashMap<>();
+
+        @Override
+        protected void clear() {
+            tasks = new Roaring64NavigableMap();
+            tasksByTag = new HashMap<>();
+        }
+
+        @Override
+        protected void add(TaskTagLink link) {
+            add(link.getTaskId(), link.getTagId());
+        }
+
+        void put(Long taskId, Collection<Long> tagIds) {
+            remove(taskId);
+            tasks.addLong(taskId);
+            for (Long tagId : tagIds) {
+                add(taskId, tagId);
+            }
+        }
+
+        void remove(Long taskId) {
+            tasks.removeLong(taskId);
+            Iterator<Roaring64NavigableMap> iterator = tasksByTag.values().iterator();
+            while (iterator.hasNext()) {
+                Roaring64NavigableMap bitmap = iterator.next();
+                bitmap.removeLong(taskId);
+                if (bitmap.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        private void add(Long taskId, Long tagId) {
+            tasks.addLong(taskId);
+            if (tagId != null) {
+                tasksByTag.computeIfAbsent(tagId, id -> new Roaring64NavigableMap()).addLong(taskId);
+            }
+        }
+
+        Roaring64NavigableMap match(Collection<Long> tagIds, TagMatch match) {
+            Roaring64NavigableMap result = new Roaring64NavigableMap();
+
+            if (match == TagMatch.ALL) {
+                if (tagIds.isEmpty()) {
+                    return result;
+                }
+                result.or(tasks);
+                for (Long tagId : tagIds) {
+                    Roaring64NavigableMap bitmap = tasksByTag.get(tagId);
+                    if (bitmap == null) {
+                        return new Roaring64NavigableMap();
+                    }
+                    result.and(bitmap);
+                }
+                return result;
+            }
+
+            for (Long tagId : tagIds) {
+                Roaring64NavigableMap bitmap = tasksByTag.get(tagId);
+                if (bitmap != null) {
+                    result.or(bitmap);
+                }
+            }
+
+            if (match == TagMatch.NONE) {
+                Roaring64NavigableMap remaining = new Roaring64NavigableMap();
+                remaining.or(tasks);
+                remaining.andNot(result);
+                return remaining;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.newton.taskmanagementapi.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A token bucket that refills continuously up to its capacity. Lock-free: every change swaps in a
+ * new immutable state with compare-and-set, so contended callers retry instead of blocking.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(long capacity, double tokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    /**
+     * Takes the permits if they are all available; permits beyond the capacity are capped to it,
+     * so a large request waits for a full bucket instead of never fitting.
+     */
+    boolean tryAcquire(int permits, long nowNanos) {
+        double wanted = Math.min(permits, capacity);
+        while (true) {
+            State current = state.get();
+            double available = current.available(nowNanos);
+            if (available < wanted) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(available - wanted, nowNanos))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back permits taken for a call that was not made after all.
+     */
+    void release(int permits, long nowNanos) {
+        double returned = Math.min(permits, capacity);
+        while (true) {
+            State current = state.get();
+            State released = new State(Math.min(capacity, current.available(nowNanos) + returned), nowNanos);
+            if (state.compareAndSet(current, released)) {
+                return;
+            }
+        }
+    }
+
+    double available(long nowNanos) {
+        return state.get().available(nowNanos);
+    }
+
+    /**
+     * How long until the given number of permits is available.
+     */
+    Duration timeUntil(int permits, long nowNanos) {
+        double missing = Math.min(permits, capacity) - available(nowNanos);
+        return missing <= 0 ? Duration.ZERO : Duration.ofNanos((long) Math.ceil(missing / tokensPerNano));
+    }
+
+    private final class State {
+
+        private final double tokens;
+        private final long updatedAt;
+
+        private State(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+
+        double available(long nowNanos) {
+            long elapsed = Math.max(0, nowNanos - updatedAt);
+            return Math.min(capacity, tokens + elapsed * tokensPerNano);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.newton.taskmanagementapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of {@link UserRepository} for the hot user lookups. Users are held
+ * by id as {@link CachedUser} snapshots, never as entities, with email and Google id kept as
+ * secondary keys pointing at the id. Writes must go through {@link #save(User)} or
+ * {@link #evict(User)} so that cached rows never outlive a change.
+ */
+@Service
+@Slf4j
+public class UserCacheService {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, CachedUser> usersById;
+    private final Cache<String, Long> idsByEmail;
+    private final Cache<String, Long> idsByGoogleId;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserCacheService(UserRepository userRepository,
+                            @Value("${app.user-cache.max-size:10000}") long maxSize,
+                            @Value("${app.user-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.idsByGoogleId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<CachedUser> findById(Long id) {
+        CachedUser cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        return load(() -> userRepository.findById(id));
+    }
+
+    public Optional<CachedUser> findByEmail(String email) {
+        return findBySecondaryKey(idsByEmail, email, () -> userRepository.findByEmail(email));
+    }
+
+    public Optional<CachedUser> findByGoogleId(String googleId) {
+        return findBySecondaryKey(idsByGoogleId, googleId, () -> userRepository.findByGoogleId(googleId));
+    }
+
+    /**
+     * Saves the user and refreshes its cache entries once the surrounding transaction, if any,
+     * has committed. Returns the saved entity; only a snapshot of it is cached.
+     */
+    public User save(User user) {
+        User saved = userRepository.save(user);
+        evict(saved);
+        CachedUser snapshot = CachedUser.of(saved);
+        AfterCommit.run(() -> cache(snapshot));
+        return saved;
+    }
+
+    public void evict(User user) {
+        evictById(user.getId());
+        if (user.getEmail() != null) {
+            idsByEmail.invalidate(user.getEmail());
+        }
+        if (user.getGoogleId() != null) {
+            idsByGoogleId.invalidate(user.getGoogleId());
+        }
+    }
+
+    public void evictById(Long id) {
+        CachedUser cached = usersById.getIfPresent(id);
+        usersById.invalidate(id);
+        if (cached != null) {
+            idsByEmail.invalidate(cached.email());
+            if (cached.googleId() != null) {
+                idsByGoogleId.invalidate(cached.googleId());
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long size() {
+        return usersById.estimatedSize();
+    }
+
+    private Optional<CachedUser> findBySecondaryKey(Cache<String, Long> index, String key,
+                                                    Supplier<Optional<User>> loader) {
+        Long id = index.getIfPresent(key);
+        if (id != null) {
+            CachedUser cached = usersById.getIfPresent(id);
+            if (cached != null) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+        }
+        return load(loader);
+    }
+
+    private Optional<CachedUser> load(Supplier<Optional<User>> loader) {
+        misses.increment();
+        Optional<CachedUser> user = loader.get().map(CachedUser::of);
+        user.ifPresent(this::cache);
+        return user;
+    }
+
+    private void cache(CachedUser user) {
+        usersById.put(user.id(), user);
+        idsByEmail.put(user.email(), user.id());
+        if (user.googleId() != null) {
+            idsByGoogleId.put(user.googleId(), user.id());
+        }
+    }
+}
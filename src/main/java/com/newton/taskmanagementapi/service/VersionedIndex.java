@@ -0,0 +1,87 @@
+package com.newton.taskmanagementapi.service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A user's in-memory index that follows their writes by {@link DataVersionService} version. It
+ * remembers the version it reflects and is rebuilt from its rows when a read finds the user's
+ * version moved on, so writes through other instances are picked up. A write reported after its
+ * commit is applied only if the index reflects every earlier one, that is when the write's
+ * sequence number is the index's version or the next one; a write of the same sequence number
+ * may touch several tasks, and an older one is already part of the index. A gap means a write it
+ * was not told about, and the index is dropped until the next read rebuilds it.
+ * <p>
+ * Updates wait for an in-flight rebuild and are idempotent, so an index rebuilt concurrently with
+ * a commit still converges. The index is guarded by a lock rather than a monitor, so a virtual
+ * thread running the rebuild query never pins its carrier.
+ *
+ * @param <R> the rows the index is built from
+ */
+abstract class VersionedIndex<R> {
+
+    private static final long UNLOADED = -1;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long version = UNLOADED;
+
+    /**
+     * Reads the index, first rebuilding it from the rows if it is behind the given version. The
+     * version must be read before the rows, so the rows include at least every write up to it.
+     */
+    final <T> T read(long currentVersion, Supplier<List<R>> rows, Supplier<T> reader) {
+        lock.lock();
+        try {
+            if (version < currentVersion) {
+                clear();
+                for (R row : rows.get()) {
+                    add(row);
+                }
+                version = currentVersion;
+            }
+            return reader.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies a committed write's change to the index, if it is in sequence.
+     */
+    final void apply(long changeSeq, Runnable change) {
+        lock.lock();
+        try {
+            if (advance(changeSeq)) {
+                change.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the index past a committed write that changed nothing it holds.
+     */
+    final void advanceTo(long changeSeq) {
+        apply(changeSeq, () -> {
+        });
+    }
+
+    protected abstract void clear();
+
+    protected abstract void add(R row);
+
+    private boolean advance(long changeSeq) {
+        if (version == UNLOADED || changeSeq < version) {
+            return false;
+        }
+        if (changeSeq > version + 1) {
+            clear();
+            version = UNLOADED;
+            return false;
+        }
+        version = changeSeq;
+        return true;
+    }
+}
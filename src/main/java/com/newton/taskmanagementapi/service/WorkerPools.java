@@ -0,0 +1,23 @@
+package com.newton.taskmanagementapi.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Fixed pools for the background workers that call Google and the database. With virtual threads
+ * the workers leave their carrier while they wait on I/O; either way the pool size bounds how many
+ * run at once.
+ */
+final class WorkerPools {
+
+    private WorkerPools() {
+    }
+
+    static ExecutorService fixed(String name, int threads, boolean virtual) {
+        ThreadFactory factory = virtual
+                ? Thread.ofVirtual().name(name + "-", 1).factory()
+                : Thread.ofPlatform().name(name + "-", 1).factory();
+        return Executors.newFixedThreadPool(threads, factory);
+    }
+}
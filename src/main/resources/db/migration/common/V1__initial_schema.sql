@@ -0,0 +1,51 @@
+-- Schema as previously generated by Hibernate's ddl-auto=update. Databases created that way are
+-- baselined at this version and start from V2.
+
+CREATE TABLE users (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email                VARCHAR(255) NOT NULL,
+    name                 VARCHAR(255) NOT NULL,
+    google_id            VARCHAR(255),
+    profile_picture_url  VARCHAR(255),
+    google_access_token  VARCHAR(255),
+    google_refresh_token VARCHAR(255),
+    token_expiry_date    TIMESTAMP(6),
+    auth_provider        VARCHAR(255) NOT NULL,
+    security_version     INTEGER DEFAULT 0 NOT NULL,
+    created_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_google_id UNIQUE (google_id),
+    CONSTRAINT ck_users_auth_provider CHECK (auth_provider IN ('GOOGLE'))
+);
+
+CREATE TABLE tasks (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title           VARCHAR(255) NOT NULL,
+    description     TEXT,
+    due_date        TIMESTAMP(6),
+    completed       BOOLEAN NOT NULL,
+    google_event_id VARCHAR(255),
+    user_id         BIGINT NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT fk_tasks_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE tags (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    user_id    BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_tags_name_user UNIQUE (name, user_id),
+    CONSTRAINT fk_tags_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE task_tags (
+    task_id BIGINT NOT NULL,
+    tag_id  BIGINT NOT NULL,
+    PRIMARY KEY (task_id, tag_id),
+    CONSTRAINT fk_task_tags_task FOREIGN KEY (task_id) REFERENCES tasks (id),
+    CONSTRAINT fk_task_tags_tag FOREIGN KEY (tag_id) REFERENCES tags (id)
+);
@@ -0,0 +1,15 @@
+-- Task listings: every page query filters by owner and orders by due date by default
+CREATE INDEX idx_tasks_user_due_date ON tasks (user_id, due_date);
+
+-- Task listings filtered by completion
+CREATE INDEX idx_tasks_user_completed_due_date ON tasks (user_id, completed, due_date);
+
+-- Tag filters, tag detail pages and task counts per tag reach task_tags by tag; the primary key
+-- only serves lookups by task
+CREATE INDEX idx_task_tags_tag_task ON task_tags (tag_id, task_id);
+
+-- Calendar webhook lookups
+CREATE INDEX idx_tasks_google_event_id ON tasks (google_event_id);
+
+-- Tag listings by owner ordered by name; the unique constraint leads with name
+CREATE INDEX idx_tags_user_name ON tags (user_id, name);
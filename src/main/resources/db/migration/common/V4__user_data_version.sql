@@ -0,0 +1,2 @@
+-- Bumped on every task or tag write of the user; validates conditional GETs of task and tag listings
+ALTER TABLE users ADD COLUMN data_version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,16 @@
+-- Position of each task's latest write in its owner's change sequence (users.data_version)
+ALTER TABLE tasks ADD COLUMN change_seq BIGINT DEFAULT 0 NOT NULL;
+
+CREATE INDEX idx_tasks_user_change_seq ON tasks (user_id, change_seq);
+
+-- One row per deleted task, so delta syncs can report deletions
+CREATE TABLE task_tombstones (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id    BIGINT NOT NULL,
+    task_id    BIGINT NOT NULL,
+    change_seq BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_task_tombstones_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_task_tombstones_user_change_seq ON task_tombstones (user_id, change_seq);
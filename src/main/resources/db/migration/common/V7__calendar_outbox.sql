@@ -0,0 +1,20 @@
+-- Google Calendar operations recorded by task writes and carried out by the outbox dispatcher
+CREATE TABLE calendar_outbox (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id         BIGINT NOT NULL,
+    task_id         BIGINT NOT NULL,
+    operation       VARCHAR(16) NOT NULL,
+    google_event_id VARCHAR(255),
+    status          VARCHAR(16) NOT NULL,
+    attempts        INTEGER DEFAULT 0 NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    claimed_until   TIMESTAMP(6),
+    last_error      VARCHAR(1000),
+    created_at      TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_calendar_outbox_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+-- Finds the oldest pending entry of a task, which is the only one of the task that may run
+CREATE INDEX idx_calendar_outbox_task_status ON calendar_outbox (task_id, status, id);
+
+CREATE INDEX idx_calendar_outbox_status_next_attempt ON calendar_outbox (status, next_attempt_at);
@@ -0,0 +1,2 @@
+-- Fingerprint of the content each task's calendar event was last written with
+ALTER TABLE tasks ADD COLUMN calendar_hash VARCHAR(64);
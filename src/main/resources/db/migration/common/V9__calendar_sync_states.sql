@@ -0,0 +1,7 @@
+-- Each user's position in their Google Calendar change feed, for inbound sync
+CREATE TABLE calendar_sync_states (
+    user_id    BIGINT PRIMARY KEY,
+    sync_token VARCHAR(1024),
+    synced_at  TIMESTAMP(6),
+    CONSTRAINT fk_calendar_sync_states_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
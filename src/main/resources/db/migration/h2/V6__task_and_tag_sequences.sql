@@ -0,0 +1,4 @@
+-- Counterpart of the Postgres migration for the H2 test database, which is always empty here
+CREATE SEQUENCE tasks_seq START WITH 1 INCREMENT BY 50;
+
+CREATE SEQUENCE tags_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,3 @@
+-- Open tasks are the common working set and a small share of a long-lived account; H2 has no
+-- partial indexes, so this migration only exists for Postgres
+CREATE INDEX idx_tasks_user_open_due_date ON tasks (user_id, due_date) WHERE completed = false;
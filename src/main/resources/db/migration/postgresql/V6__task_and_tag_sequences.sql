@@ -0,0 +1,8 @@
+-- Tasks and tags take ids from pooled sequences so Hibernate can batch their inserts; identity
+-- columns make it insert row by row to read back each generated key. Hibernate hands out the 50
+-- ids below each value it draws, so the sequences start a full block above the existing ids.
+CREATE SEQUENCE tasks_seq INCREMENT BY 50;
+SELECT setval('tasks_seq', COALESCE((SELECT MAX(id) FROM tasks), 0) + 51, false);
+
+CREATE SEQUENCE tags_seq INCREMENT BY 50;
+SELECT setval('tags_seq', COALESCE((SELECT MAX(id) FROM tags), 0) + 51, false);
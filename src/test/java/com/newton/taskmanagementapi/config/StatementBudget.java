@@ -0,0 +1,46 @@
+package com.newton.taskmanagementapi.config;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Statement budgets for MockMvc requests, read from the {@link RequestQueryStats} that
+ * {@link RequestQueryMetricsFilter} kept for the request. Only the request's own statements
+ * count, not those the test runs around it:
+ * <pre>
+ * mockMvc.perform(get("/api/tasks")).andExpect(StatementBudget.atMost(3));
+ * </pre>
+ */
+public final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    /**
+     * Fails when the request prepared more than {@code statements} statements. A lazy load per
+     * row of a page, for one, breaks any fixed budget as soon as the page holds more rows.
+     */
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            int actual = statementsOf(result);
+            if (actual > statements) {
+                fail(result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+                        + " prepared " + actual + " statements, over its budget of " + statements
+                        + "; the test log lists them with show-sql");
+            }
+        };
+    }
+
+    public static int statementsOf(MvcResult result) {
+        return statsOf(result).getStatements();
+    }
+
+    public static RequestQueryStats statsOf(MvcResult result) {
+        RequestQueryStats stats = (RequestQueryStats) result.getRequest().getAttribute(RequestQueryStats.ATTRIBUTE);
+        assertNotNull(stats, "Request was not tracked; is RequestQueryMetricsFilter registered?");
+        return stats;
+    }
+}
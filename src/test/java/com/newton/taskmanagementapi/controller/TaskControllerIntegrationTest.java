@@ -1,11 +1,23 @@
 package com.newton.taskmanagementapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newton.taskmanagementapi.config.StatementBudget;
+import com.newton.taskmanagementapi.dto.BulkTaskOperation;
+import com.newton.taskmanagementapi.dto.BulkTaskRequest;
 import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.UpdateTaskRequest;
 import com.newton.taskmanagementapi.model.User;
 import com.newton.taskmanagementapi.repository.UserRepository;
 import com.newton.taskmanagementapi.security.JwtUtil;
+import com.newton.taskmanagementapi.security.UserPrincipal;
 import com.newton.taskmanagementapi.service.GoogleCalenderService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,14 +28,19 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -46,7 +63,13 @@ class TaskControllerIntegrationTest {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private GoogleCalenderService googleCalenderService;
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private String authToken;
     private User testUser;
@@ -69,9 +92,57 @@ class TaskControllerIntegrationTest {
                 .build();
         testUser = userRepository.save(testUser);
 
-        authToken = jwtUtil.generateToken(testUser.getEmail());
+        authToken = jwtUtil.generateToken(UserPrincipal.create(testUser));
+    }
+
+    private void createTasksWithTags(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            CreateTaskRequest request = CreateTaskRequest.builder()
+                    .title("Tagged Task " + i)
+                    .tags(Set.of("tag-" + i, "shared"))
+                    .build();
+
+            mockMvc.perform(post("/api/tasks")
+                            .header("Authorization", "Bearer " + authToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+    }
+
+    private List<Long> createBulk(int count) throws Exception {
+        List<BulkTaskOperation> operations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            operations.add(BulkTaskOperation.builder()
+                    .op(BulkTaskOperation.Type.CREATE)
+                    .create(CreateTaskRequest.builder()
+                            .title("Bulk Task " + i)
+                            .tags(Set.of("bulk", "import"))
+                            .build())
+                    .build());
+        }
+
+        String response = mockMvc.perform(post("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkTaskRequest(operations))))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<Long> ids = new ArrayList<>();
+        objectMapper.readTree(response).get("created").forEach(id -> ids.add(id.asLong()));
+        return ids;
+    }
+
+    private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+        request.header("Authorization", "Bearer " + authToken);
+        entityManager.flush();
+        entityManager.clear();
 
-        when(googleCalenderService.createCalendarEvent(any(), any())).thenReturn("mock-event-id");
+        MvcResult result = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        return StatementBudget.statementsOf(result);
     }
 
     @Test
@@ -113,7 +184,7 @@ class TaskControllerIntegrationTest {
         mockMvc.perform(get("/api/tasks")
                         .header("Authorization", "Bearer " + authToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.items").isArray());
     }
 
     @Test
@@ -122,7 +193,172 @@ class TaskControllerIntegrationTest {
                         .param("completed", "false")
                         .header("Authorization", "Bearer " + authToken))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.items").isArray());
+    }
+
+    @Test
+    void getAllTasks_FilterByTagMatch() throws Exception {
+        createTasksWithTags(3);
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("tags", "tag-1", "shared")
+                        .param("match", "all")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].title").value("Tagged Task 1"));
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("tags", "tag-0", "tag-2")
+                        .param("match", "any")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)));
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("tags", "tag-0")
+                        .param("match", "none")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)));
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("tags", "shared", "unknown")
+                        .param("match", "all")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    void getAllTasks_PagesWithCursor() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            CreateTaskRequest request = CreateTaskRequest.builder()
+                    .title("Paged Task " + i)
+                    .dueDate(LocalDateTime.now().plusDays(i))
+                    .build();
+
+            mockMvc.perform(post("/api/tasks")
+                            .header("Authorization", "Bearer " + authToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated());
+        }
+
+        String firstPage = mockMvc.perform(get("/api/tasks")
+                        .param("limit", "2")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].title").value("Paged Task 1"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("limit", "2")
+                        .param("cursor", cursor)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].title").value("Paged Task 3"))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("sort", "title:asc")
+                        .param("cursor", cursor)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllTasks_ConstantStatementCount() throws Exception {
+        createTasksWithTags(2);
+        long statementsForTwoTasks = countStatements(get("/api/tasks"));
+
+        createTasksWithTags(10);
+        long statementsForTwelveTasks = countStatements(get("/api/tasks"));
+
+        assertEquals(statementsForTwoTasks, statementsForTwelveTasks);
+        // One of them reads the data version for the ETag
+        assertTrue(statementsForTwelveTasks <= 4,
+                "Expected at most 4 statements but was " + statementsForTwelveTasks);
+    }
+
+    @Test
+    void getAllTags_ConstantStatementCount() throws Exception {
+        createTasksWithTags(2);
+        long statementsForTwoTasks = countStatements(get("/api/tags"));
+
+        createTasksWithTags(10);
+        long statementsForTwelveTasks = countStatements(get("/api/tags"));
+
+        assertEquals(statementsForTwoTasks, statementsForTwelveTasks);
+        // One of them reads the data version for the ETag
+        assertTrue(statementsForTwelveTasks <= 3,
+                "Expected at most 3 statements but was " + statementsForTwelveTasks);
+    }
+
+    @Test
+    void getTaskById_WithinStatementBudget() throws Exception {
+        CreateTaskRequest request = CreateTaskRequest.builder()
+                .title("Budgeted Task")
+                .tags(Set.of("work", "home"))
+                .build();
+        String response = mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long taskId = objectMapper.readTree(response).get("id").asLong();
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/tasks/" + taskId).header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(4));
+    }
+
+    @Test
+    void getAllTasks_ReportsQueryStatsInHeaders() throws Exception {
+        createTasksWithTags(2);
+
+        MvcResult result = mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Query-Count", matchesPattern("\\d+")))
+                .andExpect(header().string("X-DB-Time", matchesPattern("\\d+\\.\\d{3}")))
+                .andReturn();
+
+        assertEquals(StatementBudget.statementsOf(result),
+                Integer.parseInt(result.getResponse().getHeader("X-Query-Count")));
+    }
+
+    @Test
+    void getAllTasks_RecordsStatementsAndTokenVerification() throws Exception {
+        createTasksWithTags(2);
+        long requestsBefore = statementSummaryCount();
+        long verificationsBefore = meterRegistry.get("jwt.verification").timers().stream().mapToLong(Timer::count).sum();
+
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+
+        assertEquals(requestsBefore + 1, statementSummaryCount());
+        assertTrue(meterRegistry.get("http.server.requests.statements")
+                .tags("method", "GET", "uri", "/api/tasks").summary().max() >= 1);
+        assertEquals(verificationsBefore + 1,
+                meterRegistry.get("jwt.verification").timers().stream().mapToLong(Timer::count).sum());
+    }
+
+    private long statementSummaryCount() {
+        DistributionSummary summary = meterRegistry.find("http.server.requests.statements")
+                .tags("method", "GET", "uri", "/api/tasks").summary();
+        return summary == null ? 0 : summary.count();
     }
 
     @Test
@@ -131,6 +367,226 @@ class TaskControllerIntegrationTest {
                 .andExpect(status().isFound());
     }
 
+    @Test
+    void getAllTasks_RevokedToken() throws Exception {
+        mockMvc.perform(post("/api/auth/revoke")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isFound());
+    }
+
+    @Test
+    void getAllTasks_NotModifiedUntilDataChanges() throws Exception {
+        createTasksWithTags(1);
+
+        String etag = mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // Other resources and other queries of the same resource have validators of their own
+        String tagsEtag = mockMvc.perform(get("/api/tags")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        assertNotEquals(etag, tagsEtag);
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("completed", "true")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks")
+                        .param("limit", "1")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tags/999999")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", tagsEtag))
+                .andExpect(status().isNotFound());
+
+        createTasksWithTags(1);
+
+        mockMvc.perform(get("/api/tasks")
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)));
+    }
+
+    @Test
+    void getTaskById_NotModifiedUntilTaskChanges() throws Exception {
+        CreateTaskRequest createRequest = CreateTaskRequest.builder()
+                .title("Conditional Task")
+                .build();
+
+        String response = mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        Long taskId = objectMapper.readTree(response).get("id").asLong();
+
+        String etag = mockMvc.perform(get("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+
+        mockMvc.perform(get("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        UpdateTaskRequest updateRequest = UpdateTaskRequest.builder()
+                .tags(Set.of("changed"))
+                .build();
+        mockMvc.perform(put("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + authToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tags", hasSize(1)));
+    }
+
+    @Test
+    void getChanges_ReturnsWritesAndDeletionsSinceCursor() throws Exception {
+        createTasksWithTags(2);
+
+        String fullSync = mockMvc.perform(get("/api/tasks/changes")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", hasSize(2)))
+                .andExpect(jsonPath("$.deleted", hasSize(0)))
+                .andExpect(jsonPath("$.hasMore").value(false))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        String cursor = objectMapper.readTree(fullSync).get("nextCursor").asText();
+        Long deletedId = objectMapper.readTree(fullSync).get("updated").get(0).get("id").asLong();
+
+        mockMvc.perform(delete("/api/tasks/" + deletedId)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNoContent());
+        createTasksWithTags(1);
+
+        mockMvc.perform(get("/api/tasks/changes")
+                        .param("since", cursor)
+                        .param("limit", "1")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", hasSize(0)))
+                .andExpect(jsonPath("$.deleted[0].id").value(deletedId))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        mockMvc.perform(get("/api/tasks/changes")
+                        .param("since", "not-a-cursor")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bulk_AppliesAllOperationTypes() throws Exception {
+        List<Long> ids = createBulk(3);
+
+        BulkTaskRequest request = BulkTaskRequest.builder()
+                .operations(List.of(
+                        BulkTaskOperation.builder()
+                                .op(BulkTaskOperation.Type.UPDATE)
+                                .id(ids.get(0))
+                                .update(UpdateTaskRequest.builder().title("Renamed").tags(Set.of("moved")).build())
+                                .build(),
+                        BulkTaskOperation.builder().op(BulkTaskOperation.Type.COMPLETE).id(ids.get(1)).build(),
+                        BulkTaskOperation.builder().op(BulkTaskOperation.Type.DELETE).id(ids.get(2)).build(),
+                        BulkTaskOperation.builder()
+                                .op(BulkTaskOperation.Type.CREATE)
+                                .create(CreateTaskRequest.builder().title("Fresh").build())
+                                .build()))
+                .build();
+
+        mockMvc.perform(post("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", hasSize(1)))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.completed").value(1))
+                .andExpect(jsonPath("$.deleted").value(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/tasks/" + ids.get(0))
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(jsonPath("$.title").value("Renamed"))
+                .andExpect(jsonPath("$.tags[0].name").value("moved"));
+        mockMvc.perform(get("/api/tasks/" + ids.get(1))
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(jsonPath("$.completed").value(true));
+        mockMvc.perform(get("/api/tasks/" + ids.get(2))
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/tasks/changes")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(jsonPath("$.updated", hasSize(3)))
+                .andExpect(jsonPath("$.deleted[0].id").value(ids.get(2)));
+    }
+
+    @Test
+    void bulk_BatchesInserts() throws Exception {
+        entityManager.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        createBulk(120);
+        entityManager.flush();
+
+        // 120 tasks, 2 tags and 240 links would take over 360 statements without batching
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 20, "Expected at most 20 statements but was " + statements);
+    }
+
+    @Test
+    void bulk_RejectsUnknownTask() throws Exception {
+        BulkTaskRequest request = BulkTaskRequest.builder()
+                .operations(List.of(BulkTaskOperation.builder().op(BulkTaskOperation.Type.DELETE).id(999_999L).build()))
+                .build();
+
+        mockMvc.perform(post("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getTaskById_NotFound() throws Exception {
         mockMvc.perform(get("/api/tasks/999")
@@ -0,0 +1,140 @@
+package com.newton.taskmanagementapi.controller;
+
+import com.newton.taskmanagementapi.model.Tag;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.TagRepository;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import com.newton.taskmanagementapi.security.JwtUtil;
+import com.newton.taskmanagementapi.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not transactional: the export reads in its own transaction on the async thread, so the
+ * fixture data has to be committed and is removed again after each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskExportIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User testUser;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            testUser = userRepository.save(User.builder()
+                    .email("export@test.com")
+                    .name("Export Test User")
+                    .googleId("google-export")
+                    .authProvider(User.AuthProvider.GOOGLE)
+                    .build());
+
+            Tag work = tagRepository.save(Tag.builder().name("work").user(testUser).build());
+            Tag home = tagRepository.save(Tag.builder().name("home").user(testUser).build());
+
+            taskRepository.save(Task.builder()
+                    .title("Tagged, with comma")
+                    .user(testUser)
+                    .tags(new HashSet<>(Set.of(work, home)))
+                    .build());
+            taskRepository.save(Task.builder()
+                    .title("Untagged")
+                    .user(testUser)
+                    .build());
+        });
+
+        authToken = jwtUtil.generateToken(UserPrincipal.create(testUser));
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void exportTasks_Ndjson() throws Exception {
+        String body = export("ndjson", "application/x-ndjson");
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"title\":\"Tagged, with comma\""));
+        assertTrue(lines[0].contains("\"work\"") && lines[0].contains("\"home\""));
+        assertTrue(lines[1].contains("\"tags\":[]"));
+    }
+
+    @Test
+    void exportTasks_Csv() throws Exception {
+        String body = export("csv", "text/csv");
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,title,"));
+        assertTrue(lines[1].contains(",\"Tagged, with comma\","));
+        assertTrue(lines[2].contains(",Untagged,"));
+    }
+
+    @Test
+    void exportTasks_UnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/api/tasks/export")
+                        .param("format", "xml")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String export(String format, String contentType) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/tasks/export")
+                        .param("format", format)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(contentType))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+}
@@ -0,0 +1,202 @@
+package com.newton.taskmanagementapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.newton.taskmanagementapi.dto.BulkTaskOperation;
+import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.UpdateTaskRequest;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import com.newton.taskmanagementapi.security.JwtUtil;
+import com.newton.taskmanagementapi.security.UserPrincipal;
+import com.newton.taskmanagementapi.service.DataVersionService;
+import com.newton.taskmanagementapi.service.TaskService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not transactional: the index is only updated once a write commits, so the tasks have to be
+ * committed and are removed again after each test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TaskSearchIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User testUser;
+    private String authToken;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(User.builder()
+                .email("search@test.com")
+                .name("Search Test User")
+                .googleId("google-search")
+                .authProvider(User.AuthProvider.GOOGLE)
+                .build());
+
+        authToken = jwtUtil.generateToken(UserPrincipal.create(testUser));
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void searchTasks_RanksTitleMatchesFirst() throws Exception {
+        createTask("Write report", "Quarterly numbers for finance");
+        createTask("Call the bank", "Ask about the quarterly report fee");
+        createTask("Groceries", "Milk and eggs");
+
+        mockMvc.perform(get("/api/tasks/search")
+                        .param("q", "report")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].title").value("Write report"))
+                .andExpect(jsonPath("$[1].title").value("Call the bank"));
+
+        mockMvc.perform(get("/api/tasks/search")
+                        .param("q", "quart rep")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void searchTasks_FollowsUpdatesAndDeletes() throws Exception {
+        Long taskId = createTask("Plan trip", null);
+
+        UpdateTaskRequest update = UpdateTaskRequest.builder().title("Book flights").build();
+        mockMvc.perform(put("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        search("trip").andExpect(jsonPath("$", hasSize(0)));
+        search("flights").andExpect(jsonPath("$", hasSize(1)));
+
+        mockMvc.perform(delete("/api/tasks/" + taskId)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNoContent());
+
+        search("flights").andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void searchTasks_IndexesExistingTasksOnFirstSearch() throws Exception {
+        taskRepository.save(Task.builder()
+                .title("Renew passport")
+                .user(testUser)
+                .build());
+
+        search("passport").andExpect(jsonPath("$[0].title").value("Renew passport"));
+    }
+
+    @Test
+    void searchTasks_PicksUpWritesThroughOtherInstances() throws Exception {
+        createTask("Plan trip", null);
+        search("visa").andExpect(jsonPath("$", hasSize(0)));
+
+        // Written without going through this instance's service, as another instance would
+        transactionTemplate.executeWithoutResult(status -> taskRepository.save(Task.builder()
+                .title("Apply for visa")
+                .user(testUser)
+                .changeSeq(dataVersionService.bump(testUser.getId()))
+                .build()));
+
+        search("visa").andExpect(jsonPath("$[0].title").value("Apply for visa"));
+    }
+
+    @Test
+    void searchTasks_KeepsIndexThroughBulkCompletes() throws Exception {
+        Long taskId = createTask("Renew passport", null);
+        search("passport").andExpect(jsonPath("$", hasSize(1)));
+        double builds = meterRegistry.get("task.index.builds").tag("index", "search").counter().count();
+
+        taskService.applyBulk(List.of(BulkTaskOperation.builder()
+                .op(BulkTaskOperation.Type.COMPLETE)
+                .id(taskId)
+                .build()), testUser);
+
+        search("passport").andExpect(jsonPath("$[0].completed").value(true));
+        assertEquals(builds, meterRegistry.get("task.index.builds").tag("index", "search").counter().count());
+    }
+
+    @Test
+    void searchTasks_BlankQuery() throws Exception {
+        search(" ").andExpect(status().isBadRequest());
+    }
+
+    private Long createTask(String title, String description) throws Exception {
+        CreateTaskRequest request = CreateTaskRequest.builder()
+                .title(title)
+                .description(description)
+                .build();
+
+        String response = mockMvc.perform(post("/api/tasks")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private ResultActions search(String query) throws Exception {
+        return mockMvc.perform(get("/api/tasks/search")
+                .param("q", query)
+                .header("Authorization", "Bearer " + authToken));
+    }
+}
@@ -0,0 +1,166 @@
+package com.newton.taskmanagementapi.controller;
+
+import com.newton.taskmanagementapi.TaskManagementApiApplication;
+import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import com.newton.taskmanagementapi.security.JwtUtil;
+import com.newton.taskmanagementapi.security.UserPrincipal;
+import com.newton.taskmanagementapi.service.TaskService;
+import jakarta.servlet.Filter;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares throughput of the task list endpoint served by Tomcat's platform thread pool and by
+ * virtual threads, with more concurrent clients than the pool has threads. Each request first
+ * blocks for {@link #UPSTREAM_LATENCY_MILLIS}, standing in for the blocking I/O that dominates real
+ * traffic and that an in-memory database does not have. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+class VirtualThreadsBenchmarkTest {
+
+    private static final int PLATFORM_THREADS = 20;
+    private static final int CLIENTS = 200;
+    private static final int WARMUP_REQUESTS = 2;
+    private static final int MEASURED_REQUESTS = 10;
+    private static final long UPSTREAM_LATENCY_MILLIS = 200;
+
+    @Test
+    void virtualThreadsServeMoreRequestsThanThePlatformPool() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        log.info("GET /api/tasks with {} clients, {} ms of blocking per request: "
+                        + "platform ({} threads) {} req/s p50={} p99={} ms, virtual {} req/s p50={} p99={} ms",
+                CLIENTS, UPSTREAM_LATENCY_MILLIS, PLATFORM_THREADS,
+                Math.round(platform.throughput()), platform.percentile(50), platform.percentile(99),
+                Math.round(virtual.throughput()), virtual.percentile(50), virtual.percentile(99));
+        assertTrue(virtual.throughput() > platform.throughput(),
+                "Expected virtual threads to serve more requests per second");
+    }
+
+    private static Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                TaskManagementApiApplication.class, UpstreamLatency.class)
+                .profiles("test")
+                // Arguments rather than default properties, which the application's own files override
+                .run("--server.port=0",
+                        "--spring.jmx.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark-" + virtualThreads + ";MODE=PostgreSQL",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--logging.level.com.newton.taskmanagementapi=WARN")) {
+            User user = context.getBean(UserRepository.class).save(User.builder()
+                    .email("benchmark@test.com")
+                    .name("Benchmark User")
+                    .googleId("google-benchmark")
+                    .authProvider(User.AuthProvider.GOOGLE)
+                    .build());
+            TaskService taskService = context.getBean(TaskService.class);
+            for (int i = 0; i < 50; i++) {
+                taskService.createTask(CreateTaskRequest.builder().title("Task " + i).build(), user);
+            }
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/tasks?size=20"))
+                    .header("Authorization", "Bearer " + context.getBean(JwtUtil.class).generateToken(UserPrincipal.create(user)))
+                    .build();
+            return load(request);
+        }
+    }
+
+    /**
+     * Has every client send its requests back to back, and returns the latencies of the measured
+     * ones with the throughput over the whole run.
+     */
+    private static Result load(HttpRequest request) throws Exception {
+        AtomicInteger failures = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build()) {
+            List<Future<long[]>> runs = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                runs.add(clients.submit(() -> {
+                    for (int i = 0; i < WARMUP_REQUESTS; i++) {
+                        http.send(request, HttpResponse.BodyHandlers.discarding());
+                    }
+                    long[] millis = new long[MEASURED_REQUESTS];
+                    for (int i = 0; i < MEASURED_REQUESTS; i++) {
+                        long sent = System.nanoTime();
+                        if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        millis[i] = (System.nanoTime() - sent) / 1_000_000;
+                    }
+                    return millis;
+                }));
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> run : runs) {
+                long[] millis = run.get();
+                int from = all.length;
+                all = Arrays.copyOf(all, from + millis.length);
+                System.arraycopy(millis, 0, all, from, millis.length);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            assertEquals(0, failures.get(), "Expected every request to succeed");
+
+            Arrays.sort(all);
+            return new Result(CLIENTS * (WARMUP_REQUESTS + MEASURED_REQUESTS) / seconds, all);
+        }
+    }
+
+    private record Result(double throughput, long[] sortedMillis) {
+
+        long percentile(int percentile) {
+            return sortedMillis[Math.min(sortedMillis.length - 1, sortedMillis.length * percentile / 100)];
+        }
+    }
+
+    /**
+     * Not a {@code @Configuration}, so component scanning in the other tests leaves it alone.
+     */
+    static class UpstreamLatency {
+
+        @Bean
+        FilterRegistrationBean<Filter> upstreamLatencyFilter() {
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+                try {
+                    Thread.sleep(UPSTREAM_LATENCY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                chain.doFilter(request, response);
+            });
+            // Behind the concurrency limit, so only admitted requests wait
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+            return registration;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.newton.taskmanagementapi.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the SQL shapes of the hot repository queries are served by the indexes created in
+ * the migrations, using H2's EXPLAIN on the migrated test schema.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void taskPage_UsesUserDueDateIndex() {
+        assertUsesIndex("IDX_TASKS_USER_DUE_DATE",
+                "SELECT t.id FROM tasks t WHERE t.user_id = 1 " +
+                        "ORDER BY t.due_date ASC NULLS LAST, t.id ASC FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void taskPageByCompletion_UsesUserCompletedDueDateIndex() {
+        assertUsesIndex("IDX_TASKS_USER_COMPLETED_DUE_DATE",
+                "SELECT t.id FROM tasks t WHERE t.user_id = 1 AND t.completed = FALSE " +
+                        "ORDER BY t.due_date ASC NULLS LAST, t.id ASC FETCH FIRST 51 ROWS ONLY");
+    }
+
+    @Test
+    void tasksOfTag_UseTagTaskIndex() {
+        assertUsesIndex("IDX_TASK_TAGS_TAG_TASK",
+                "SELECT tt.task_id FROM task_tags tt WHERE tt.tag_id = 3");
+    }
+
+    @Test
+    void countTasksByTags_UsesTagTaskIndex() {
+        assertUsesIndex("IDX_TASK_TAGS_TAG_TASK",
+                "SELECT tt.tag_id, COUNT(tt.task_id) FROM task_tags tt WHERE tt.tag_id IN (1, 2) GROUP BY tt.tag_id");
+    }
+
+    @Test
+    void findByGoogleEventId_UsesGoogleEventIdIndex() {
+        assertUsesIndex("IDX_TASKS_GOOGLE_EVENT_ID",
+                "SELECT t.id FROM tasks t WHERE t.google_event_id = 'event-1'");
+    }
+
+    @Test
+    void findTagsByUser_UsesUserNameIndex() {
+        assertUsesIndex("IDX_TAGS_USER_NAME",
+                "SELECT g.id FROM tags g WHERE g.user_id = 1 ORDER BY g.name");
+    }
+
+    @Test
+    void taskChanges_UseChangeSequenceIndexes() {
+        assertUsesIndex("IDX_TASKS_USER_CHANGE_SEQ",
+                "SELECT t.id FROM tasks t WHERE t.user_id = 1 AND t.change_seq > 10 " +
+                        "ORDER BY t.change_seq FETCH FIRST 51 ROWS ONLY");
+        assertUsesIndex("IDX_TASK_TOMBSTONES_USER_CHANGE_SEQ",
+                "SELECT b.task_id FROM task_tombstones b WHERE b.user_id = 1 AND b.change_seq > 10 " +
+                        "ORDER BY b.change_seq FETCH FIRST 51 ROWS ONLY");
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertTrue(plan.contains("PUBLIC." + index + ":"), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+}
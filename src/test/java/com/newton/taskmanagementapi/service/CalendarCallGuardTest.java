@@ -0,0 +1,139 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.exception.CalendarUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CalendarCallGuardTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void acquire_RejectsUserOnceTheirBucketIsEmpty() {
+        CalendarCallGuard guard = guard(3, 100, Duration.ofHours(1));
+
+        guard.acquire(1L, 2);
+        guard.acquire(1L, 1);
+        CalendarUnavailableException rejected = assertThrows(CalendarUnavailableException.class, () -> guard.acquire(1L, 1));
+
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertEquals(1, rejections("user"));
+        // Other users have buckets of their own
+        assertDoesNotThrow(() -> guard.acquire(2L, 3));
+    }
+
+    @Test
+    void acquire_RejectsEveryoneOnceGlobalBucketIsEmpty() {
+        CalendarCallGuard guard = guard(10, 4, Duration.ofHours(1));
+
+        guard.acquire(1L, 4);
+
+        assertThrows(CalendarUnavailableException.class, () -> guard.acquire(2L, 1));
+        assertEquals(1, rejections("global"));
+        assertEquals(0, rejections("user"));
+    }
+
+    @Test
+    void backOff_RejectsOnlyThrottledUserAndLeavesBreakerClosed() {
+        CalendarCallGuard guard = guard(100, 100, Duration.ofHours(1));
+
+        guard.backOff(1L);
+
+        CalendarUnavailableException rejected = assertThrows(CalendarUnavailableException.class, () -> guard.acquire(1L, 1));
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ofHours(1)) <= 0);
+        assertEquals(1, rejections("user"));
+        assertEquals(CalendarCallGuard.State.CLOSED, guard.getState());
+        assertDoesNotThrow(() -> guard.acquire(2L, 1));
+    }
+
+    @Test
+    void onFailure_OpensBreakerAfterConsecutiveFailures() {
+        CalendarCallGuard guard = guard(100, 100, Duration.ofHours(1));
+
+        guard.onFailure();
+        guard.onFailure();
+        guard.onSuccess();
+        guard.onFailure();
+        guard.onFailure();
+        assertEquals(CalendarCallGuard.State.CLOSED, guard.getState());
+
+        guard.onFailure();
+        assertEquals(CalendarCallGuard.State.OPEN, guard.getState());
+        assertFalse(guard.isCallPermitted());
+
+        CalendarUnavailableException rejected = assertThrows(CalendarUnavailableException.class, () -> guard.acquire(1L, 1));
+        assertTrue(rejected.getRetryAfter().compareTo(Duration.ofHours(1)) <= 0);
+        assertEquals(1, rejections("breaker"));
+        assertEquals(CalendarCallGuard.State.OPEN.ordinal(), meterRegistry.get("calendar.breaker.state").gauge().value());
+    }
+
+    @Test
+    void acquire_LetsOneTrialCallThroughOnceOpenPeriodIsOver() {
+        CalendarCallGuard guard = guard(100, 100, Duration.ZERO);
+        trip(guard);
+        assertTrue(guard.isCallPermitted());
+
+        guard.acquire(1L, 1);
+        assertEquals(CalendarCallGuard.State.HALF_OPEN, guard.getState());
+        assertThrows(CalendarUnavailableException.class, () -> guard.acquire(2L, 1));
+
+        guard.onSuccess();
+        assertEquals(CalendarCallGuard.State.CLOSED, guard.getState());
+        assertDoesNotThrow(() -> guard.acquire(2L, 1));
+    }
+
+    @Test
+    void onFailure_ReopensBreakerWhenTrialCallFails() {
+        CalendarCallGuard guard = guard(100, 100, Duration.ZERO);
+        trip(guard);
+
+        guard.acquire(1L, 1);
+        guard.onFailure();
+
+        assertEquals(CalendarCallGuard.State.OPEN, guard.getState());
+    }
+
+    @Test
+    void acquire_HandsTrialToNextCallerWhenRateLimitRefusesIt() {
+        CalendarCallGuard guard = guard(1, 100, Duration.ZERO);
+        guard.acquire(1L, 1);
+        trip(guard);
+
+        assertThrows(CalendarUnavailableException.class, () -> guard.acquire(1L, 1));
+        assertEquals(CalendarCallGuard.State.OPEN, guard.getState());
+
+        guard.acquire(2L, 1);
+        assertEquals(CalendarCallGuard.State.HALF_OPEN, guard.getState());
+    }
+
+    private CalendarCallGuard guard(long userCapacity, long globalCapacity, Duration openDuration) {
+        // Buckets refill too slowly to matter within a test
+        return new CalendarCallGuard(meterRegistry, 16, userCapacity, 0.001, Duration.ofHours(1),
+                globalCapacity, 0.001, 3, openDuration);
+    }
+
+    private static void trip(CalendarCallGuard guard) {
+        for (int i = 0; i < 3; i++) {
+            guard.onFailure();
+        }
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("calendar.calls.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,236 @@
+package com.newton.taskmanagementapi.service;
+
+import com.google.api.client.util.DateTime;
+import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.TaskResponse;
+import com.newton.taskmanagementapi.dto.UpdateTaskRequest;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.CalendarOutboxRepository;
+import com.newton.taskmanagementapi.repository.CalendarSyncStateRepository;
+import com.newton.taskmanagementapi.repository.TagMatch;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs inbound sync against a local fake of the Calendar API, with the outbox dispatcher writing
+ * the events. Not transactional, like the dispatcher tests.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CalendarInboundSyncTest {
+
+    private static final FakeCalendar calendar = FakeCalendar.start();
+
+    @DynamicPropertySource
+    static void calendarProperties(DynamicPropertyRegistry registry) {
+        registry.add("google.calendar.root-url", calendar::rootUrl);
+    }
+
+    @Autowired
+    private CalendarInboundSync inboundSync;
+
+    @Autowired
+    private CalendarOutboxDispatcher dispatcher;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CalendarOutboxRepository outboxRepository;
+
+    @Autowired
+    private CalendarSyncStateRepository syncStateRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskTagIndex taskTagIndex;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        calendar.reset();
+        testUser = userRepository.save(User.builder()
+                .email("inbound@test.com")
+                .name("Inbound Test User")
+                .googleId("google-inbound")
+                .googleAccessToken("test-access-token")
+                .authProvider(User.AuthProvider.GOOGLE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        syncStateRepository.deleteAll();
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @AfterAll
+    static void stopCalendar() {
+        calendar.server.stop(0);
+    }
+
+    @Test
+    void sync_AppliesEditsMadeInGoogle() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        assertEquals(0, inboundSync.sync(testUser));
+        long changeSeq = taskRepository.findById(task.getId()).orElseThrow().getChangeSeq();
+
+        LocalDateTime moved = LocalDateTime.of(2030, 1, 2, 15, 30);
+        calendar.edit("event-1", event("Dentist moved", "Bring card\n\nStatus: Completed", moved));
+
+        assertEquals(1, inboundSync.sync(testUser));
+
+        Task updated = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals("Dentist moved", updated.getTitle());
+        assertEquals("Bring card", updated.getDescription());
+        assertEquals(moved, updated.getDueDate());
+        assertTrue(updated.getCompleted());
+        assertTrue(updated.getChangeSeq() > changeSeq);
+        // The edit came from Google, so nothing is written back
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void sync_UpdatesTaskIndexesWithoutRebuildingThem() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        assertEquals(List.of(task.getId()), taskSearchIndex.search(testUser.getId(), "dentist", 10));
+        assertTrue(taskTagIndex.match(testUser.getId(), List.of(), TagMatch.NONE).contains(task.getId()));
+        double tagBuilds = builds("tag");
+        double searchBuilds = builds("search");
+
+        calendar.edit("event-1", event("Orthodontist", null, LocalDateTime.of(2030, 1, 2, 15, 30)));
+        assertEquals(1, inboundSync.sync(testUser));
+
+        assertEquals(List.of(task.getId()), taskSearchIndex.search(testUser.getId(), "orthodontist", 10));
+        assertTrue(taskSearchIndex.search(testUser.getId(), "dentist", 10).isEmpty());
+        assertTrue(taskTagIndex.match(testUser.getId(), List.of(), TagMatch.NONE).contains(task.getId()));
+        assertEquals(tagBuilds, builds("tag"));
+        assertEquals(searchBuilds, builds("search"));
+    }
+
+    @Test
+    void sync_ListsOnlyEventsChangedSinceLastRun() {
+        createTask("Dentist");
+        createTask("Gym");
+        createTask("Groceries");
+        dispatcher.dispatch();
+        assertEquals(0, inboundSync.sync(testUser));
+        calendar.requests.clear();
+
+        calendar.edit("event-2", event("Gym at 7", null, LocalDateTime.of(2030, 1, 2, 7, 0)));
+
+        assertEquals(1, inboundSync.sync(testUser));
+        assertEquals(List.of("full", "sync-3"), calendar.listings);
+        // One changed event fits a single page
+        assertEquals(1, calendar.requests.size());
+        assertEquals(0, inboundSync.sync(testUser));
+    }
+
+    @Test
+    void sync_IgnoresEchoesOfOwnWrites() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        inboundSync.sync(testUser);
+
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().title("Dentist at 9").build(), testUser);
+        dispatcher.dispatch();
+
+        assertEquals(0, inboundSync.sync(testUser));
+    }
+
+    @Test
+    void sync_ResyncsInFullWhenTokenExpires() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        inboundSync.sync(testUser);
+
+        calendar.expireSyncTokens();
+        calendar.edit("event-1", event("Dentist moved", null, LocalDateTime.of(2030, 1, 2, 15, 30)));
+
+        assertEquals(1, inboundSync.sync(testUser));
+        assertEquals(List.of("full", "sync-1", "full"), calendar.listings);
+        assertEquals("Dentist moved", taskRepository.findById(task.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void sync_KeepsLocalChangesQueuedForGoogle() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        inboundSync.sync(testUser);
+
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().title("Dentist at 9").build(), testUser);
+        calendar.edit("event-1", event("Dentist moved", null, LocalDateTime.of(2030, 1, 2, 15, 30)));
+
+        assertEquals(0, inboundSync.sync(testUser));
+        assertEquals("Dentist at 9", taskRepository.findById(task.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void sync_UnschedulesTaskWhoseEventWasDeleted() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        inboundSync.sync(testUser);
+
+        calendar.delete("event-1");
+
+        assertEquals(1, inboundSync.sync(testUser));
+        Task updated = taskRepository.findById(task.getId()).orElseThrow();
+        assertNull(updated.getGoogleEventId());
+        assertNull(updated.getDueDate());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    private double builds(String index) {
+        return meterRegistry.get("task.index.builds").tag("index", index).counter().count();
+    }
+
+    private TaskResponse createTask(String title) {
+        return taskService.createTask(CreateTaskRequest.builder()
+                .title(title)
+                .dueDate(LocalDateTime.now().plusDays(1))
+                .build(), testUser);
+    }
+
+    private static String event(String summary, String description, LocalDateTime start) {
+        String dateTime = new DateTime(Date.from(start.atZone(ZoneId.systemDefault()).toInstant())).toStringRfc3339();
+        return "{\"summary\":\"" + summary + "\","
+                + (description == null ? "" : "\"description\":\"" + description.replace("\n", "\\n") + "\",")
+                + "\"start\":{\"dateTime\":\"" + dateTime + "\"}}";
+    }
+}
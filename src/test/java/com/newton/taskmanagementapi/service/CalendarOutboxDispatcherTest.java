@@ -0,0 +1,332 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.dto.BulkTaskOperation;
+import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.TaskResponse;
+import com.newton.taskmanagementapi.dto.UpdateTaskRequest;
+import com.newton.taskmanagementapi.model.CalendarOutboxEntry;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.CalendarOutboxRepository;
+import com.newton.taskmanagementapi.repository.TagMatch;
+import com.newton.taskmanagementapi.repository.TagRepository;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the dispatcher against a local fake of the Calendar API. Not transactional: the dispatcher
+ * only sees committed outbox entries, so the fixture data is removed again after each test.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CalendarOutboxDispatcherTest {
+
+    private static final String EVENTS_PATH = FakeCalendar.EVENTS_PATH;
+    private static final FakeCalendar calendar = FakeCalendar.start();
+
+    @DynamicPropertySource
+    static void calendarProperties(DynamicPropertyRegistry registry) {
+        registry.add("google.calendar.root-url", calendar::rootUrl);
+    }
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CalendarOutboxDispatcher dispatcher;
+
+    @Autowired
+    private CalendarOutboxRepository outboxRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CalendarCallGuard callGuard;
+
+    @Autowired
+    private TaskTagIndex taskTagIndex;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        calendar.reset();
+        testUser = userRepository.save(User.builder()
+                .email("calendar@test.com")
+                .name("Calendar Test User")
+                .googleId("google-calendar")
+                .googleAccessToken("test-access-token")
+                .authProvider(User.AuthProvider.GOOGLE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        taskRepository.deleteAll();
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @AfterAll
+    static void stopCalendar() {
+        calendar.server.stop(0);
+    }
+
+    @Test
+    void createTask_DoesNotWaitForCalendar() {
+        TaskResponse task = createTask("Dentist");
+
+        assertTrue(calendar.requests.isEmpty());
+        assertEquals(1, outboxRepository.count());
+        assertTrue(meterRegistry.get("calendar.outbox.lag").gauge().value() >= 0);
+        assertEquals(1.0, meterRegistry.get("calendar.outbox.pending").gauge().value());
+
+        assertEquals(1, dispatcher.dispatch());
+
+        assertEquals(List.of("POST " + EVENTS_PATH), calendar.requests);
+        assertEquals("event-1", taskRepository.findById(task.getId()).orElseThrow().getGoogleEventId());
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0.0, meterRegistry.get("calendar.outbox.lag").gauge().value());
+    }
+
+    @Test
+    void dispatch_CollapsesQueuedSyncsOfATask() {
+        TaskResponse task = createTask("Dentist");
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().title("Dentist at 9").build(), testUser);
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().title("Dentist at 10").build(), testUser);
+
+        assertEquals(1, dispatcher.dispatch());
+
+        assertEquals(List.of("POST " + EVENTS_PATH), calendar.requests);
+        assertTrue(calendar.bodies.get(0).contains("Dentist at 10"));
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void updateTask_SkipsCalendarWhenEventWouldNotChange() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().title("Dentist").build(), testUser);
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().tags(Set.of("health")).build(), testUser);
+
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void dispatch_SkipsUpdateRevertedBeforeDispatch() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().title("Dentist at 9").build(), testUser);
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().title("Dentist").build(), testUser);
+
+        assertEquals(1, dispatcher.dispatch());
+
+        assertEquals(List.of("POST " + EVENTS_PATH), calendar.requests);
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void dispatch_RecordsFingerprintOfWrittenEvent() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().completed(true).build(), testUser);
+        dispatcher.dispatch();
+
+        Task stored = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(GoogleCalenderService.fingerprint(stored), stored.getCalendarHash());
+        assertTrue(calendar.stored.get("event-1").contains(stored.getCalendarHash()));
+    }
+
+    @Test
+    void dispatch_FoldsQueuedUpdatesIntoDelete() {
+        TaskResponse task = createTask("Dentist");
+        dispatcher.dispatch();
+        taskService.updateTask(task.getId(), UpdateTaskRequest.builder().completed(true).build(), testUser);
+        taskService.deleteTask(task.getId(), testUser);
+
+        assertEquals(1, dispatcher.dispatch());
+
+        assertEquals(List.of("POST " + EVENTS_PATH, "DELETE " + EVENTS_PATH + "/event-1"), calendar.requests);
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void dispatch_CancelsInsertFollowedByDelete() {
+        TaskResponse task = createTask("Dentist");
+        taskService.deleteTask(task.getId(), testUser);
+
+        assertEquals(1, dispatcher.dispatch());
+
+        assertTrue(calendar.requests.isEmpty());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void dispatch_SendsBurstAsBatchRequests() {
+        createTasks(120);
+
+        assertEquals(120, dispatcher.dispatch());
+
+        assertEquals(List.of(50, 50, 20), calendar.batches);
+        assertEquals(120, calendar.requests.size());
+        assertTrue(taskRepository.findAll().stream().allMatch(task -> task.getGoogleEventId() != null));
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void dispatch_WaitsForBurstToSettleUnlessBatchIsFull() {
+        ReflectionTestUtils.setField(dispatcher, "linger", Duration.ofMinutes(1));
+        try {
+            createTasks(49);
+            assertEquals(0, dispatcher.dispatch());
+
+            createTasks(1);
+            assertEquals(50, dispatcher.dispatch());
+            assertEquals(List.of(50), calendar.batches);
+        } finally {
+            ReflectionTestUtils.setField(dispatcher, "linger", Duration.ZERO);
+        }
+    }
+
+    @Test
+    void dispatch_RetriesFailuresWithBackoff() {
+        TaskResponse task = createTask("Dentist");
+        calendar.failures.set(1);
+
+        assertEquals(1, dispatcher.dispatch());
+
+        CalendarOutboxEntry entry = outboxRepository.findAll().get(0);
+        assertEquals(1, entry.getAttempts());
+        assertEquals(CalendarOutboxEntry.Status.PENDING, entry.getStatus());
+        assertTrue(entry.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNull(taskRepository.findById(task.getId()).orElseThrow().getGoogleEventId());
+
+        // Not due yet
+        assertEquals(0, dispatcher.dispatch());
+
+        entry.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(entry);
+        assertEquals(1, dispatcher.dispatch());
+
+        assertEquals("event-1", taskRepository.findById(task.getId()).orElseThrow().getGoogleEventId());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void dispatch_KeepsTaskIndexesWhenStoringCreatedEvents() {
+        TaskResponse task = taskService.createTask(CreateTaskRequest.builder()
+                .title("Dentist")
+                .dueDate(LocalDateTime.now().plusDays(1))
+                .tags(Set.of("health"))
+                .build(), testUser);
+        Long tagId = task.getTags().iterator().next().getId();
+        assertEquals(List.of(task.getId()), taskSearchIndex.search(testUser.getId(), "dentist", 10));
+        assertTrue(taskTagIndex.match(testUser.getId(), List.of(tagId), TagMatch.ANY).contains(task.getId()));
+        double tagBuilds = builds("tag");
+        double searchBuilds = builds("search");
+
+        assertEquals(1, dispatcher.dispatch());
+        assertEquals("event-1", taskRepository.findById(task.getId()).orElseThrow().getGoogleEventId());
+
+        // Storing the event id bumped the data version; the indexes move past it instead of rebuilding
+        assertEquals(List.of(task.getId()), taskSearchIndex.search(testUser.getId(), "dentist", 10));
+        assertTrue(taskTagIndex.match(testUser.getId(), List.of(tagId), TagMatch.ANY).contains(task.getId()));
+        assertEquals(tagBuilds, builds("tag"));
+        assertEquals(searchBuilds, builds("search"));
+    }
+
+    @Test
+    void dispatch_FailsPermanentErrorsWithoutRetrying() {
+        TaskResponse task = createTask("Dentist");
+        calendar.failureStatus = 400;
+        calendar.failures.set(1);
+
+        assertEquals(1, dispatcher.dispatch());
+
+        CalendarOutboxEntry entry = outboxRepository.findAll().get(0);
+        assertEquals(1, entry.getAttempts());
+        assertEquals(CalendarOutboxEntry.Status.FAILED, entry.getStatus());
+        assertTrue(entry.getLastError().startsWith("400"));
+        assertNull(taskRepository.findById(task.getId()).orElseThrow().getGoogleEventId());
+    }
+
+    @Test
+    void dispatch_DefersEntriesRefusedByRateLimitWithoutUsingAnAttempt() {
+        TaskResponse task = createTask("Dentist");
+        // Use up the user's share of calls
+        callGuard.acquire(testUser.getId(), 1000);
+        double rejected = meterRegistry.get("calendar.calls.rejected").tag("reason", "user").counter().count();
+
+        assertEquals(1, dispatcher.dispatch());
+
+        assertTrue(calendar.requests.isEmpty());
+        CalendarOutboxEntry entry = outboxRepository.findAll().get(0);
+        assertEquals(0, entry.getAttempts());
+        assertEquals(CalendarOutboxEntry.Status.PENDING, entry.getStatus());
+        assertNull(entry.getClaimedUntil());
+        assertTrue(entry.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNull(taskRepository.findById(task.getId()).orElseThrow().getGoogleEventId());
+        assertEquals(rejected + 1, meterRegistry.get("calendar.calls.rejected").tag("reason", "user").counter().count());
+    }
+
+    private double builds(String index) {
+        return meterRegistry.get("task.index.builds").tag("index", index).counter().count();
+    }
+
+    private void createTasks(int count) {
+        List<BulkTaskOperation> operations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            operations.add(BulkTaskOperation.builder()
+                    .op(BulkTaskOperation.Type.CREATE)
+                    .create(CreateTaskRequest.builder()
+                            .title("Burst " + i)
+                            .dueDate(LocalDateTime.now().plusDays(1))
+                            .build())
+                    .build());
+        }
+        taskService.applyBulk(operations, testUser);
+    }
+
+    private TaskResponse createTask(String title) {
+        return taskService.createTask(CreateTaskRequest.builder()
+                .title(title)
+                .dueDate(LocalDateTime.now().plusDays(1))
+                .build(), testUser);
+    }
+}
@@ -0,0 +1,171 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.TaskResponse;
+import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.CalendarOutboxRepository;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs reconciliation against a local fake of the Calendar API, with the outbox dispatcher
+ * writing the events. Not transactional, like the dispatcher tests.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CalendarReconcilerTest {
+
+    private static final String EVENTS_PATH = FakeCalendar.EVENTS_PATH;
+    private static final FakeCalendar calendar = FakeCalendar.start();
+
+    @DynamicPropertySource
+    static void calendarProperties(DynamicPropertyRegistry registry) {
+        registry.add("google.calendar.root-url", calendar::rootUrl);
+    }
+
+    @Autowired
+    private CalendarReconciler reconciler;
+
+    @Autowired
+    private CalendarOutboxDispatcher dispatcher;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private CalendarOutboxRepository outboxRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        calendar.reset();
+        testUser = userRepository.save(User.builder()
+                .email("reconcile@test.com")
+                .name("Reconcile Test User")
+                .googleId("google-reconcile")
+                .googleAccessToken("test-access-token")
+                .authProvider(User.AuthProvider.GOOGLE)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        taskRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @AfterAll
+    static void stopCalendar() {
+        calendar.server.stop(0);
+    }
+
+    @Test
+    void reconcile_LeavesTasksInSyncAlone() {
+        createTask("Dentist");
+        createTask("Gym");
+        createTask("Groceries");
+        dispatcher.dispatch();
+        calendar.requests.clear();
+
+        assertEquals(0, reconciler.reconcileAll());
+
+        // Three events in pages of two
+        assertEquals(Collections.nCopies(2, "GET " + EVENTS_PATH), calendar.requests);
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void reconcile_BackfillsTaskWithoutEvent() {
+        TaskResponse task = createTask("Dentist");
+        // The queued SYNC was lost
+        outboxRepository.deleteAll();
+
+        assertEquals(1, reconciler.reconcile(testUser));
+        dispatcher.dispatch();
+
+        assertEquals("event-1", taskRepository.findById(task.getId()).orElseThrow().getGoogleEventId());
+    }
+
+    @Test
+    void reconcile_RewritesEventWithDifferentFingerprint() {
+        createTask("Dentist");
+        createTask("Gym");
+        createTask("Groceries");
+        dispatcher.dispatch();
+        calendar.stored.put("event-2", "{\"summary\":\"Edited elsewhere\"}");
+        calendar.requests.clear();
+
+        assertEquals(1, reconciler.reconcile(testUser));
+        dispatcher.dispatch();
+
+        assertEquals(List.of("GET " + EVENTS_PATH, "GET " + EVENTS_PATH, "PUT " + EVENTS_PATH + "/event-2"),
+                calendar.requests);
+        assertEquals(0, reconciler.reconcile(testUser));
+    }
+
+    @Test
+    void reconcile_SkipsTasksWithQueuedEntries() {
+        createTask("Dentist");
+
+        assertEquals(0, reconciler.reconcile(testUser));
+        assertEquals(1, outboxRepository.count());
+    }
+
+    @Test
+    void reconcile_RecordsFingerprintOfMatchingEvent() {
+        TaskResponse created = createTask("Dentist");
+        dispatcher.dispatch();
+        Task task = taskRepository.findById(created.getId()).orElseThrow();
+        String fingerprint = task.getCalendarHash();
+        task.setCalendarHash(null);
+        taskRepository.save(task);
+
+        assertEquals(0, reconciler.reconcile(testUser));
+
+        assertEquals(fingerprint, taskRepository.findById(created.getId()).orElseThrow().getCalendarHash());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void reconcileAll_SkipsUsersWithoutCalendarAccess() {
+        createTask("Dentist");
+        outboxRepository.deleteAll();
+        testUser.setGoogleAccessToken(null);
+        userRepository.save(testUser);
+
+        assertEquals(0, reconciler.reconcileAll());
+        assertNull(taskRepository.findAll().get(0).getGoogleEventId());
+    }
+
+    private TaskResponse createTask(String title) {
+        return taskService.createTask(CreateTaskRequest.builder()
+                .title(title)
+                .dueDate(LocalDateTime.now().plusDays(1))
+                .build(), testUser);
+    }
+}
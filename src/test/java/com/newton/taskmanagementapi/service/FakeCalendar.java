@@ -0,0 +1,284 @@
+package com.newton.taskmanagementapi.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A local fake of the Calendar API events endpoints. Answers event calls on their own or in a
+ * batch request, numbering created events, keeps the bodies written to each event so listing
+ * returns them in pages of {@code pageSize}, and fails as many HTTP requests with
+ * {@code failureStatus}, 503 unless set, as {@code failures} asks for. Every write is a change in a feed that sync tokens list from; tokens
+ * issued before {@link #expireSyncTokens()} are answered with 410.
+ */
+final class FakeCalendar {
+
+    static final String EVENTS_PATH = "/calendar/v3/calendars/primary/events";
+
+    final HttpServer server;
+    final List<String> requests = new CopyOnWriteArrayList<>();
+    final List<String> bodies = new CopyOnWriteArrayList<>();
+    final List<Integer> batches = new CopyOnWriteArrayList<>();
+    final AtomicInteger failures = new AtomicInteger();
+    final AtomicInteger events = new AtomicInteger();
+    final Map<String, String> stored = Collections.synchronizedMap(new LinkedHashMap<>());
+    final List<String> listings = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long expiredBelow;
+    volatile int pageSize = 2;
+    volatile int failureStatus = 503;
+
+    private FakeCalendar(HttpServer server) {
+        this.server = server;
+    }
+
+    static FakeCalendar start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            FakeCalendar calendar = new FakeCalendar(server);
+            server.createContext(EVENTS_PATH, calendar::handle);
+            server.createContext("/batch/calendar/v3", calendar::handleBatch);
+            server.start();
+            return calendar;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    String rootUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    void reset() {
+        requests.clear();
+        bodies.clear();
+        batches.clear();
+        failures.set(0);
+        events.set(0);
+        stored.clear();
+        listings.clear();
+        changedAt.clear();
+        changes.set(0);
+        expiredBelow = 0;
+        pageSize = 2;
+        failureStatus = 503;
+    }
+
+    /**
+     * Replaces an event as if it was edited in Google Calendar.
+     */
+    void edit(String eventId, String body) {
+        stored.put(eventId, body);
+        changedAt.put(eventId, changes.incrementAndGet());
+    }
+
+    /**
+     * Deletes an event as if in Google Calendar.
+     */
+    void delete(String eventId) {
+        stored.remove(eventId);
+        changedAt.put(eventId, changes.incrementAndGet());
+    }
+
+    void expireSyncTokens() {
+        expiredBelow = changes.get() + 1;    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (failed(exchange)) {
+            return;
+        }
+
+        if ("GET".equals(exchange.getRequestMethod()) && EVENTS_PATH.equals(exchange.getRequestURI().getPath())) {
+            list(exchange);
+            return;
+        }
+
+        Answer answer = answer(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), body(exchange));
+        if (answer.json() == null) {
+            exchange.sendResponseHeaders(answer.status(), -1);
+            exchange.close();
+        } else {
+            respond(exchange, answer.status(), answer.json());
+        }
+    }
+
+    /**
+     * Splits a multipart/mixed batch into its embedded HTTP requests and answers each of them
+     * in a part of a multipart/mixed response, in the same order.
+     */
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        if (failed(exchange)) {
+            return;
+        }
+
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length());
+        StringBuilder response = new StringBuilder();
+        int parts = 0;
+
+        for (String part : body(exchange).split("--" + Pattern.quote(boundary))) {
+            int partBody = part.indexOf("\r\n\r\n");
+            if (partBody < 0) {
+                continue;
+            }
+            String request = part.substring(partBody + 4);
+            String[] requestLine = request.substring(0, request.indexOf("\r\n")).split(" ");
+            int requestBody = request.indexOf("\r\n\r\n");
+            String content = requestBody < 0 ? "" : request.substring(requestBody + 4).trim();
+
+            Answer answer = answer(requestLine[0], URI.create(requestLine[1]).getPath(), content);
+            response.append("--batch_fake\r\nContent-Type: application/http\r\nContent-ID: response-")
+                    .append(++parts).append("\r\n\r\nHTTP/1.1 ").append(answer.status()).append(" OK\r\n");
+            if (answer.json() != null) {
+                response.append("Content-Type: application/json; charset=UTF-8\r\n\r\n").append(answer.json());
+            } else {
+                response.append("\r\n");
+            }
+            response.append("\r\n");
+        }
+        response.append("--batch_fake--\r\n");
+
+        batches.add(parts);
+        byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "multipart/mixed; boundary=batch_fake");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Answer answer(String method, String path, String body) {
+        requests.add(method + " " + path);
+        bodies.add(body);
+        String eventId = path.substring(path.lastIndexOf('/') + 1);
+        return switch (method) {
+            case "POST" -> {
+                String id = "event-" + events.incrementAndGet();
+                edit(id, body);
+                yield new Answer(200, "{\"id\":\"" + id + "\"}");
+            }
+            case "PUT" -> {
+                edit(eventId, body);
+                yield new Answer(200, "{\"id\":\"" + eventId + "\"}");
+            }
+            case "DELETE" -> {
+                delete(eventId);
+                yield new Answer(204, null);
+            }
+            default -> new Answer(405, "{}");
+        };
+    }
+
+    /**
+     * Lists the stored events, or with a sync token the events changed after it, deleted ones
+     * included. Page tokens carry the change the listing started from and the offset.
+     */
+    private void list(HttpExchange exchange) throws IOException {
+        String syncToken = parameter(exchange, "syncToken");
+        String pageToken = parameter(exchange, "pageToken");
+        requests.add("GET " + EVENTS_PATH);
+
+        long since = -1;
+        int offset = 0;
+        if (pageToken != null) {
+            since = Long.parseLong(pageToken.substring(0, pageToken.indexOf('_')));
+            offset = Integer.parseInt(pageToken.substring(pageToken.indexOf('_') + 1));
+        } else if (syncToken != null) {
+            listings.add(syncToken);
+            since = Long.parseLong(syncToken.substring("sync-".length()));
+            if (since < expiredBelow) {
+                respond(exchange, 410, "{\"error\":{\"code\":410,\"message\":\"Sync token is no longer valid\"}}");
+                return;
+            }
+        } else {
+            listings.add("full");
+        }
+
+        List<String> items = new ArrayList<>();
+        if (since < 0) {
+            synchronized (stored) {
+                stored.forEach((id, body) -> items.add(item(id, body)));
+            }
+        } else {
+            long after = since;
+            changedAt.entrySet().stream()
+                    .filter(change -> change.getValue() > after)
+                    .sorted(Map.Entry.comparingByValue())
+                    .map(Map.Entry::getKey)
+                    .forEach(id -> {
+                        String body = stored.get(id);
+                        items.add(body == null ? "{\"id\":\"" + id + "\",\"status\":\"cancelled\"}" : item(id, body));
+                    });
+        }
+
+        List<String> page = items.stream().skip(offset).limit(pageSize).collect(Collectors.toList());
+        String next = offset + pageSize < items.size()
+                ? ",\"nextPageToken\":\"" + since + "_" + (offset + pageSize) + "\""
+                : ",\"nextSyncToken\":\"sync-" + changes.get() + "\"";
+        respond(exchange, 200, "{\"items\":[" + String.join(",", page) + "]" + next + "}");
+    }
+
+    private static String item(String id, String body) {
+        return body.length() > 2
+                ? "{\"id\":\"" + id + "\"," + body.substring(1)
+                : "{\"id\":\"" + id + "\"}";
+    }
+
+    private static String parameter(HttpExchange exchange, String name) {
+        String query = Objects.toString(exchange.getRequestURI().getQuery(), "");
+        return Pattern.compile("(?:^|&)" + name + "=([^&]*)").matcher(query).results()
+                .map(match -> match.group(1))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private boolean failed(HttpExchange exchange) throws IOException {
+        if (failures.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0) {
+            int status = failureStatus;
+            respond(exchange, status, "{\"error\":{\"code\":" + status + ",\"message\":\"Injected failure\"}}");
+            return true;
+        }
+        return false;
+    }
+
+    private String body(HttpExchange exchange) throws IOException {
+        InputStream content = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            content = new GZIPInputStream(content);
+        }
+        return new String(content.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private record Answer(int status, String json) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.newton.taskmanagementapi.service;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.calendar.Calendar;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.newton.taskmanagementapi.model.User;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the per-call latency of building a transport and client for every call, as the
+ * service used to, with the shared pooled transport and cached clients, against a local HTTPS
+ * stub of the Calendar API. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@Slf4j
+class GoogleCalendarClientsBenchmarkTest {
+
+    private static final String PASSWORD = "changeit";
+    private static final int WARMUP_CALLS = 50;
+    private static final int MEASURED_CALLS = 500;
+
+    @TempDir
+    static Path directory;
+
+    private static HttpsServer server;
+    private static KeyStore trustStore;
+    private static String rootUrl;
+
+    @BeforeAll
+    static void startStub() throws Exception {
+        Path keyStoreFile = directory.resolve("stub.p12");
+        Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-alias", "stub", "-keyalg", "EC", "-groupname", "secp256r1",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1", "-validity", "1",
+                "-storetype", "PKCS12", "-keystore", keyStoreFile.toString(),
+                "-storepass", PASSWORD, "-keypass", PASSWORD)
+                .inheritIO()
+                .start();
+        assertEquals(0, keytool.waitFor());
+
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keyStoreFile)) {
+            keyStore.load(in, PASSWORD.toCharArray());
+        }
+        trustStore = KeyStore.getInstance("PKCS12");
+        trustStore.load(null, null);
+        trustStore.setCertificateEntry("stub", keyStore.getCertificate("stub"));
+
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, PASSWORD.toCharArray());
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagers.getKeyManagers(), null, null);
+
+        // Without it the stub's separate header and body writes add delayed-ACK stalls to every call
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpsServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/calendar/v3/calendars/primary/events", exchange -> {
+            byte[] body = "{\"id\":\"event-1\",\"summary\":\"Stub\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        rootUrl = "https://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @AfterAll
+    static void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void sharedTransportIsFasterThanTransportPerCall() throws Exception {
+        User user = User.builder().id(1L).googleAccessToken("benchmark-token").build();
+
+        CallTimer perCall = () -> {
+            // What every operation did before: new trusted transport, new client
+            HttpTransport transport = new NetHttpTransport.Builder().trustCertificates(trustStore).build();
+            new Calendar.Builder(transport, GsonFactory.getDefaultInstance(),
+                    new HttpCredentialsAdapter(GoogleCredentials.create(new AccessToken(user.getGoogleAccessToken(), null))))
+                    .setApplicationName("benchmark")
+                    .setRootUrl(rootUrl)
+                    .build()
+                    .events().get("primary", "event-1").execute();
+        };
+
+        HttpTransport pooled = GoogleCalendarClients.newPooledTransport(trustStore, 8);
+        GoogleCalendarClients clients = new GoogleCalendarClients(pooled, User::getGoogleAccessToken, "benchmark", rootUrl, 100, Duration.ofHours(1),
+                Duration.ofSeconds(5), Duration.ofSeconds(15));
+        CallTimer shared = () -> clients.forUser(user).events().get("primary", "event-1").execute();
+
+        try {
+            // Shared first: the hundreds of connections the per-call phase leaves idle on the stub
+            // would otherwise make it close the pooled connection between calls
+            long[] after = shared.measure();
+            long[] before = perCall.measure();
+
+            log.info("Calendar call latency over {} calls (us): per-call transport p50={} p99={}, "
+                            + "shared transport p50={} p99={}", MEASURED_CALLS,
+                    percentile(before, 50), percentile(before, 99), percentile(after, 50), percentile(after, 99));
+            assertTrue(percentile(after, 50) < percentile(before, 50),
+                    "Expected the shared transport to be faster at the median");
+        } finally {
+            pooled.shutdown();
+        }
+    }
+
+    private static long percentile(long[] sortedMicros, int percentile) {
+        return sortedMicros[Math.min(sortedMicros.length - 1, sortedMicros.length * percentile / 100)];
+    }
+
+    @FunctionalInterface
+    private interface CallTimer {
+
+        void call() throws Exception;
+
+        /**
+         * Returns the sorted latencies, in microseconds, of the measured calls after a warm-up.
+         */
+        default long[] measure() throws Exception {
+            for (int i = 0; i < WARMUP_CALLS; i++) {
+                call();
+            }
+
+            long[] micros = new long[MEASURED_CALLS];
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                long start = System.nanoTime();
+                call();
+                micros[i] = (System.nanoTime() - start) / 1_000;
+            }
+            Arrays.sort(micros);
+            return micros;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.exception.GoogleCalendarException;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the refresher against a local fake of Google's token endpoint. Not transactional: refreshed
+ * tokens are written by the refresher's own transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GoogleTokenRefresherTest {
+
+    private static final FakeTokenServer tokenServer = FakeTokenServer.start();
+
+    @DynamicPropertySource
+    static void tokenServerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.security.oauth2.client.provider.google.token-uri", tokenServer::tokenUri);
+    }
+
+    @Autowired
+    private GoogleTokenRefresher refresher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        tokenServer.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @AfterAll
+    static void stopTokenServer() {
+        tokenServer.server.stop(0);
+    }
+
+    @Test
+    void refreshDue_RefreshesTokensAboutToExpire() {
+        User later = createUser("later", LocalDateTime.now().plusMinutes(3));
+        User sooner = createUser("sooner", LocalDateTime.now().plusMinutes(1));
+        User fresh = createUser("fresh", LocalDateTime.now().plusHours(1));
+
+        assertEquals(2, refresher.refreshDue());
+
+        assertEquals(Set.of("refresh-sooner", "refresh-later"), Set.copyOf(tokenServer.refreshTokens));
+        User refreshed = userRepository.findById(sooner.getId()).orElseThrow();
+        assertTrue(refreshed.getGoogleAccessToken().startsWith("fresh-"));
+        assertTrue(refreshed.getTokenExpiryDate().isAfter(LocalDateTime.now().plusMinutes(59)));
+        assertEquals(refreshed.getGoogleAccessToken(), refresher.accessToken(sooner));
+        assertEquals("access-fresh", userRepository.findById(fresh.getId()).orElseThrow().getGoogleAccessToken());
+
+        // The refreshed tokens are queued again for their new expiry, which is not due yet
+        assertEquals(0, refresher.refreshDue());
+        assertEquals(userRepository.findById(later.getId()).orElseThrow().getGoogleAccessToken(), refresher.accessToken(later));
+    }
+
+    @Test
+    void accessToken_HandsOutRefreshedTokenWithoutReadingTheUser() {
+        User user = createUser("cached", LocalDateTime.now().plusMinutes(1));
+        refresher.refreshDue();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // The caller still holds the user as it was before the refresh
+        assertEquals("fresh-1", refresher.accessToken(user));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void accessToken_SharesOneRefreshBetweenConcurrentCallers() throws Exception {
+        User user = createUser("expired", LocalDateTime.now().minusMinutes(1));
+        tokenServer.gate = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<String>> tokens = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> refresher.accessToken(user), callers))
+                    .collect(Collectors.toList());
+            assertTrue(tokenServer.arrived.await(5, TimeUnit.SECONDS));
+            // Give the other callers time to pile up behind the refresh in flight
+            Thread.sleep(200);
+            tokenServer.gate.countDown();
+
+            for (CompletableFuture<String> token : tokens) {
+                assertEquals("fresh-1", token.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdown();
+        }
+        assertEquals(1, tokenServer.refreshTokens.size());
+    }
+
+    @Test
+    void refreshDue_DropsRevokedRefreshTokens() {
+        User user = createUser("revoked", LocalDateTime.now().minusMinutes(1));
+
+        assertEquals(1, refresher.refreshDue());
+        assertEquals(0, refresher.refreshDue());
+
+        assertEquals(1, tokenServer.refreshTokens.size());
+        assertEquals("access-revoked", refresher.accessToken(user));
+        assertEquals(1, tokenServer.refreshTokens.size());
+    }
+
+    @Test
+    void refreshDue_RetriesTransientFailuresLater() {
+        createUser("flaky", LocalDateTime.now().plusMinutes(1));
+        tokenServer.failures.set(1);
+
+        assertEquals(1, refresher.refreshDue());
+
+        // Queued again after the retry delay rather than right away
+        assertEquals(0, refresher.refreshDue());
+        assertEquals(1, tokenServer.refreshTokens.size());
+    }
+
+    @Test
+    void refreshDue_AdoptsTokenRefreshedByAnotherInstance() {
+        User user = createUser("shared", LocalDateTime.now().plusMinutes(1));
+        // Another instance refreshed the token and wrote it back after it was queued here
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        stored.setGoogleAccessToken("elsewhere-1");
+        stored.setTokenExpiryDate(LocalDateTime.now().plusHours(1));
+        userRepository.save(stored);
+
+        assertEquals(1, refresher.refreshDue());
+
+        assertTrue(tokenServer.refreshTokens.isEmpty());
+        assertEquals("elsewhere-1", refresher.accessToken(user));
+        assertEquals(0, refresher.refreshDue());
+    }
+
+    @Test
+    void accessToken_FailsWithoutAnyToken() {
+        User user = userRepository.save(User.builder()
+                .email("none@test.com")
+                .name("No Token")
+                .authProvider(User.AuthProvider.GOOGLE)
+                .build());
+
+        assertThrows(GoogleCalendarException.class, () -> refresher.accessToken(user));
+    }
+
+    private User createUser(String name, LocalDateTime tokenExpiry) {
+        User user = userRepository.save(User.builder()
+                .email(name + "@test.com")
+                .name(name)
+                .googleId("google-" + name)
+                .googleAccessToken("access-" + name)
+                .googleRefreshToken("refresh-" + name)
+                .tokenExpiryDate(tokenExpiry)
+                .authProvider(User.AuthProvider.GOOGLE)
+                .build());
+        refresher.tokenIssued(user);
+        return user;
+    }
+
+    /**
+     * Answers refresh-token grants with numbered access tokens; rejects the refresh token
+     * "refresh-revoked" as revoked, fails as many requests with 503 as {@code failures} asks for,
+     * and holds requests at {@code gate} when one is set.
+     */
+    private static final class FakeTokenServer {
+
+        private final HttpServer server;
+        private final List<String> refreshTokens = new CopyOnWriteArrayList<>();
+        private final AtomicInteger issued = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile CountDownLatch arrived = new CountDownLatch(1);
+        private volatile CountDownLatch gate;
+
+        private FakeTokenServer(HttpServer server) {
+            this.server = server;
+        }
+
+        static FakeTokenServer start() {
+            try {
+                HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+                FakeTokenServer tokenServer = new FakeTokenServer(server);
+                server.createContext("/token", tokenServer::handle);
+                server.setExecutor(Executors.newCachedThreadPool());
+                server.start();
+                return tokenServer;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        String tokenUri() {
+            return "http://localhost:" + server.getAddress().getPort() + "/token";
+        }
+
+        void reset() {
+            refreshTokens.clear();
+            issued.set(0);
+            failures.set(0);
+            arrived = new CountDownLatch(1);
+            gate = null;
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            String refreshToken = URLDecoder.decode(form.replaceAll(".*refresh_token=([^&]*).*", "$1"), StandardCharsets.UTF_8);
+            refreshTokens.add(refreshToken);
+            arrived.countDown();
+
+            try {
+                if (gate != null && !gate.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Gate was never opened");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (failures.getAndUpdate(remaining -> Math.max(remaining - 1, 0)) > 0) {
+                respond(exchange, 503, "{\"error\":\"temporarily_unavailable\"}");
+            } else if ("refresh-revoked".equals(refreshToken)) {
+                respond(exchange, 400, "{\"error\":\"invalid_grant\",\"error_description\":\"Token has been expired or revoked.\"}");
+            } else {
+                respond(exchange, 200, "{\"access_token\":\"fresh-" + issued.incrementAndGet()
+                        + "\",\"expires_in\":3600,\"token_type\":\"Bearer\"}");
+            }
+        }
+
+        private void respond(HttpExchange exchange, int status, String json) throws IOException {
+            byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.TagResponse;
+import com.newton.taskmanagementapi.dto.TaskResponse;
+import com.newton.taskmanagementapi.dto.UpdateTaskRequest;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.TagRepository;
+import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional: the second-level cache is only written when transactions commit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private DataVersionService dataVersionService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User testUser;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(User.builder()
+                .email("cache@test.com")
+                .name("Cache Test User")
+                .googleId("google-cache")
+                .authProvider(User.AuthProvider.GOOGLE)
+                .build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAll();
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getAllTasks_ReadsTagsFromCacheUntilTaskTagsChange() {
+        TaskResponse created = taskService.createTask(
+                CreateTaskRequest.builder().title("Cached").tags(Set.of("home", "work")).build(), testUser);
+        taskService.getAllTasks(testUser, null, null, null, null, null, null);
+
+        statistics.clear();
+        assertEquals(Set.of("home", "work"), tagNames(onlyTask()));
+        assertEquals(1, statistics.getCacheRegionStatistics("task-tags").getHitCount());
+        assertEquals(0, statistics.getCacheRegionStatistics("task-tags").getMissCount());
+
+        taskService.updateTask(created.getId(), UpdateTaskRequest.builder().tags(Set.of("errands")).build(), testUser);
+
+        assertEquals(Set.of("errands"), tagNames(onlyTask()));
+    }
+
+    @Test
+    void getAllTags_ServedFromQueryCacheUntilTagsChange() {
+        taskService.createTask(CreateTaskRequest.builder().title("First").tags(Set.of("home")).build(), testUser);
+        tagService.getAllTags(testUser);
+
+        statistics.clear();
+        assertEquals(List.of("home"), tagNames(tagService.getAllTags(testUser)));
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        // Only the task counts are left to query
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        taskService.createTask(CreateTaskRequest.builder().title("Second").tags(Set.of("work")).build(), testUser);
+
+        assertEquals(List.of("home", "work"), tagNames(tagService.getAllTags(testUser)));
+    }
+
+    @Test
+    void bump_LeavesCachedUserInPlace() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> userRepository.findById(testUser.getId()));
+        long before = dataVersionService.getVersion(testUser.getId());
+
+        long after = transactionTemplate.execute(status -> dataVersionService.bump(testUser.getId()));
+
+        assertEquals(before + 1, after);
+        assertTrue(entityManagerFactory.getCache().contains(User.class, testUser.getId()));
+        assertEquals(after, dataVersionService.getVersion(testUser.getId()));
+    }
+
+    @Test
+    void metrics_ReportHitRatioAndSizePerRegion() {
+        taskService.createTask(CreateTaskRequest.builder().title("Measured").tags(Set.of("home")).build(), testUser);
+        taskService.getAllTasks(testUser, null, null, null, null, null, null);
+        statistics.clear();
+        taskService.getAllTasks(testUser, null, null, null, null, null, null);
+
+        assertEquals(1.0, meterRegistry.get("hibernate.cache.region.hit.ratio").tag("region", "task-tags").gauge().value());
+        assertEquals(1.0, meterRegistry.get("hibernate.cache.region.requests")
+                .tags("region", "task-tags", "result", "hit").functionCounter().count());
+        assertTrue(meterRegistry.get("hibernate.cache.region.size").tag("region", "tags").gauge().value() >= 1);
+    }
+
+    private TaskResponse onlyTask() {
+        List<TaskResponse> tasks = taskService.getAllTasks(testUser, null, null, null, null, null, null).getItems();
+        assertEquals(1, tasks.size());
+        return tasks.get(0);
+    }
+
+    private static Set<String> tagNames(TaskResponse task) {
+        return task.getTags().stream().map(TagResponse::getName).collect(Collectors.toSet());
+    }
+
+    private static List<String> tagNames(List<TagResponse> tags) {
+        return tags.stream().map(TagResponse::getName).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,137 @@
+package com.newton.taskmanagementapi.service;
+
+import com.newton.taskmanagementapi.model.Tag;
+import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.TagRepository;
+import com.newton.taskmanagementapi.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Not transactional: every caller commits its own transaction, as concurrent requests would.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TagServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User testUser;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        testUser = userRepository.save(User.builder()
+                .email("tags@test.com")
+                .name("Tag Test User")
+                .googleId("google-tags")
+                .authProvider(User.AuthProvider.GOOGLE)
+                .build());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tagRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getOrCreateTags_ConcurrentCallersAgreeOnTags() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                List<String> names = IntStream.range(0, 20)
+                        .mapToObj(i -> "tag-" + i)
+                        .collect(Collectors.toList());
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Map<String, Long>>> results = new ArrayList<>();
+
+                for (int thread = 0; thread < THREADS; thread++) {
+                    // Each caller asks for an overlapping, differently ordered subset of names
+                    List<String> subset = new ArrayList<>(names.subList(thread % 4, names.size()));
+                    Collections.shuffle(subset);
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return transactionTemplate.execute(status ->
+                                tagService.getOrCreateTags(Set.copyOf(subset), testUser).stream()
+                                        .collect(Collectors.toMap(Tag::getName, Tag::getId)));
+                    }));
+                }
+                start.countDown();
+
+                List<Map<String, Long>> resolved = new ArrayList<>();
+                for (Future<Map<String, Long>> result : results) {
+                    resolved.add(result.get());
+                }
+
+                Map<String, Long> expected = tagService.findTagIds(names, testUser);
+                resolved.forEach(ids -> ids.forEach((name, id) -> assertEquals(expected.get(name), id)));
+                assertEquals(names.size(), tagRepository.findByUserOrderByNameAsc(testUser).size());
+
+                tagRepository.deleteAll();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getOrCreateTags_ResolvesAllNamesInThreeStatements() {
+        transactionTemplate.executeWithoutResult(status -> tagService.getOrCreateTags(Set.of("work", "home"), testUser));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        Set<Tag> tags = transactionTemplate.execute(status ->
+                tagService.getOrCreateTags(Set.of("work", "home", "urgent", "later", "errands"), testUser));
+
+        assertEquals(5, tags.size());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Expected at most 3 statements but was " + statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        transactionTemplate.executeWithoutResult(status ->
+                tagService.getOrCreateTags(Set.of("work", "urgent"), testUser));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
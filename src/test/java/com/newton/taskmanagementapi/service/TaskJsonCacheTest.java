@@ -0,0 +1,104 @@
+package com.newton.taskmanagementapi.service;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.newton.taskmanagementapi.dto.RawJson;
+import com.newton.taskmanagementapi.dto.TagResponse;
+import com.newton.taskmanagementapi.dto.TaskJson;
+import com.newton.taskmanagementapi.dto.TaskResponse;
+import com.newton.taskmanagementapi.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskJsonCacheTest {
+
+    private ObjectMapper objectMapper;
+    private TaskJsonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cache = new TaskJsonCache(objectMapper, DataSize.ofMegabytes(1), Duration.ofHours(1));
+    }
+
+    @Test
+    void taskJson_SerializesLikeTaskResponse() throws Exception {
+        Task task = task(LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+        TagResponse tag = TagResponse.builder().id(7L).name("work").taskCount(3).build();
+
+        TaskResponse response = TaskResponse.builder()
+                .id(task.getId())
+                .title(task.getTitle())
+                .description(task.getDescription())
+                .dueDate(task.getDueDate())
+                .completed(task.getCompleted())
+                .tags(Set.of(tag))
+                .createdAt(task.getCreatedAt())
+                .updatedAt(task.getUpdatedAt())
+                .build();
+        TaskJson json = new TaskJson(cache.get(task), Set.of(tag));
+
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(List.of(response))),
+                objectMapper.readTree(objectMapper.writeValueAsBytes(List.of(json))));
+    }
+
+    @Test
+    void get_ReusesFieldsUntilTaskIsUpdated() {
+        Task task = task(LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+        RawJson first = cache.get(task);
+
+        assertSame(first, cache.get(task));
+
+        task.setTitle("Renamed");
+        task.setUpdatedAt(task.getUpdatedAt().plusSeconds(1));
+        RawJson updated = cache.get(task);
+
+        assertNotSame(first, updated);
+        assertTrue(updated.getValue().contains("\"title\":\"Renamed\""));
+    }
+
+    @Test
+    void get_DoesNotCacheUnsavedTasks() {
+        Task task = task(null);
+
+        assertNotSame(cache.get(task), cache.get(task));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void rawJson_QuotesLikeSerializedString() {
+        RawJson json = cache.get(task(LocalDateTime.of(2026, 1, 2, 3, 4, 5)));
+        SerializedString expected = new SerializedString(json.getValue());
+
+        assertArrayEquals(expected.asQuotedUTF8(), json.asQuotedUTF8());
+        assertArrayEquals(expected.asQuotedChars(), json.asQuotedChars());
+    }
+
+    private static Task task(LocalDateTime updatedAt) {
+        return Task.builder()
+                .id(1L)
+                .title("Write report \"Q1\" – draft")
+                .description("Multi-byte text: café")
+                .dueDate(LocalDateTime.of(2026, 2, 1, 9, 0))
+                .completed(false)
+                .createdAt(LocalDateTime.of(2026, 1, 1, 0, 0))
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -1,25 +1,38 @@
 package com.newton.taskmanagementapi.service;
 
+import com.newton.taskmanagementapi.dto.BulkTaskOperation;
 import com.newton.taskmanagementapi.dto.CreateTaskRequest;
+import com.newton.taskmanagementapi.dto.CursorPageResponse;
+import com.newton.taskmanagementapi.dto.TaskChangesResponse;
 import com.newton.taskmanagementapi.dto.TaskResponse;
 import com.newton.taskmanagementapi.dto.UpdateTaskRequest;
+import com.newton.taskmanagementapi.exception.BadRequestException;
 import com.newton.taskmanagementapi.exception.ResourceNotFoundException;
 import com.newton.taskmanagementapi.model.Tag;
 import com.newton.taskmanagementapi.model.Task;
+import com.newton.taskmanagementapi.model.TaskTombstone;
 import com.newton.taskmanagementapi.model.User;
+import com.newton.taskmanagementapi.repository.CalendarOutboxRepository;
+import com.newton.taskmanagementapi.repository.ChangeCursor;
+import com.newton.taskmanagementapi.repository.TagMatch;
+import com.newton.taskmanagementapi.repository.TaskPageQuery;
 import com.newton.taskmanagementapi.repository.TaskRepository;
+import com.newton.taskmanagementapi.repository.TaskTombstoneRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,11 +41,23 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskTombstoneRepository taskTombstoneRepository;
+
     @Mock
     private TagService tagService;
 
     @Mock
-    private GoogleCalenderService googleCalenderService;
+    private TaskTagIndex taskTagIndex;
+
+    @Mock
+    private TaskSearchIndex taskSearchIndex;
+
+    @Mock
+    private DataVersionService dataVersionService;
+
+    @Mock
+    private CalendarOutboxRepository calendarOutboxRepository;
 
     @InjectMocks
     private TaskService taskService;
@@ -80,14 +105,14 @@ class TaskServiceTest {
 
         when(tagService.getOrCreateTags(any(), any())).thenReturn(Set.of(testTag));
         when(taskRepository.save(any(Task.class))).thenReturn(testTask);
-        when(googleCalenderService.createCalendarEvent(any(), any())).thenReturn("event-123");
 
         TaskResponse response = taskService.createTask(request, testUser);
 
         assertNotNull(response);
         assertEquals("Test Task", response.getTitle());
-        verify(taskRepository, times(2)).save(any(Task.class));
-        verify(googleCalenderService).createCalendarEvent(any(), any());
+        verify(taskRepository).save(any(Task.class));
+        verify(calendarOutboxRepository).insertSyncs(eq(testUser.getId()), eq(List.of(1L)), any());
+        verify(dataVersionService).bump(testUser.getId());
     }
 
     @Test
@@ -112,32 +137,175 @@ class TaskServiceTest {
         TaskResponse response = taskService.createTask(request, testUser);
 
         assertNotNull(response);
-        verify(googleCalenderService, never()).createCalendarEvent(any(), any());
+        verify(calendarOutboxRepository, never()).insertSyncs(any(), any(), any());
     }
 
     @Test
     void getAllTasks_Success() {
-        when(taskRepository.findByUserOrderByDueDateAsc(testUser))
+        when(taskRepository.findPage(any(TaskPageQuery.class)))
                 .thenReturn(Collections.singletonList(testTask));
 
-        List<TaskResponse> responses = taskService.getAllTasks(testUser, null, null);
+        CursorPageResponse<TaskResponse> page = taskService.getAllTasks(testUser, null, null, null, null, null, null);
 
-        assertNotNull(responses);
-        assertEquals(1, responses.size());
-        assertEquals("Test Task", responses.get(0).getTitle());
-        verify(taskRepository).findByUserOrderByDueDateAsc(testUser);
+        assertNotNull(page);
+        assertEquals(1, page.getItems().size());
+        assertEquals("Test Task", page.getItems().get(0).getTitle());
+        assertFalse(page.getHasMore());
+        assertNull(page.getNextCursor());
+        verify(taskRepository).findPage(any(TaskPageQuery.class));
     }
 
     @Test
     void getAllTasks_FilterByCompleted() {
-        when(taskRepository.findByUserAndCompletedOrderByDueDateAsc(testUser, false))
+        when(taskRepository.findPage(any(TaskPageQuery.class)))
                 .thenReturn(Collections.singletonList(testTask));
 
-        List<TaskResponse> responses = taskService.getAllTasks(testUser, false, null);
+        CursorPageResponse<TaskResponse> page = taskService.getAllTasks(testUser, false, null, null, null, null, null);
+
+        assertNotNull(page);
+        assertEquals(1, page.getItems().size());
+        verify(taskRepository).findPage(argThat(query ->
+                query.getUser() == testUser && Boolean.FALSE.equals(query.getCompleted())));
+    }
+
+    @Test
+    void getAllTasks_ReturnsCursorWhenMoreRowsExist() {
+        Task secondTask = Task.builder()
+                .id(2L)
+                .title("Second Task")
+                .dueDate(testTask.getDueDate().plusDays(1))
+                .completed(false)
+                .user(testUser)
+                .tags(new HashSet<>())
+                .build();
+
+        when(taskRepository.findPage(any(TaskPageQuery.class)))
+                .thenReturn(List.of(testTask, secondTask));
+
+        CursorPageResponse<TaskResponse> page = taskService.getAllTasks(testUser, null, null, null, null, null, 1);
+
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.getHasMore());
+        assertNotNull(page.getNextCursor());
+        verify(taskRepository).findPage(argThat(query -> query.getLimit() == 2));
+    }
+
+    @Test
+    void getAllTasks_FilterByTagsUsesIndex() {
+        when(tagService.normalizeName(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tagService.findTagIds(List.of("work", "home"), testUser))
+                .thenReturn(Map.of("work", 10L, "home", 11L));
+        when(taskTagIndex.match(eq(testUser.getId()), argThat(ids -> ids.containsAll(List.of(10L, 11L))),
+                eq(TagMatch.ALL)))
+                .thenReturn(Roaring64NavigableMap.bitmapOf(1L));
+        when(taskRepository.findPage(any(TaskPageQuery.class)))
+                .thenReturn(List.of(testTask));
+
+        CursorPageResponse<TaskResponse> page =
+                taskService.getAllTasks(testUser, null, List.of("work", "home"), "all", null, null, null);
+
+        assertEquals(1, page.getItems().size());
+        verify(taskRepository).findPage(argThat(query ->
+                List.of(1L).equals(query.getTaskIds()) && query.getTagNames() == null));
+    }
+
+    @Test
+    void getAllTasks_MatchAllWithUnknownTag() {
+        when(tagService.normalizeName(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tagService.findTagIds(List.of("work", "missing"), testUser))
+                .thenReturn(Map.of("work", 10L));
+
+        CursorPageResponse<TaskResponse> page =
+                taskService.getAllTasks(testUser, null, List.of("work", "missing"), "all", null, null, null);
+
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.getHasMore());
+        verify(taskTagIndex, never()).match(any(), any(), any());
+        verify(taskRepository, never()).findPage(any(TaskPageQuery.class));
+    }
+
+    @Test
+    void getAllTasks_InvalidTagMatch() {
+        assertThrows(BadRequestException.class,
+                () -> taskService.getAllTasks(testUser, null, List.of("work"), "some", null, null, null));
+        verify(taskRepository, never()).findPage(any(TaskPageQuery.class));
+    }
+
+    @Test
+    void getAllTasks_InvalidCursor() {
+        assertThrows(BadRequestException.class,
+                () -> taskService.getAllTasks(testUser, null, null, null, null, "not-a-cursor", null));
+        verify(taskRepository, never()).findPage(any(TaskPageQuery.class));
+    }
+
+    @Test
+    void searchTasks_KeepsIndexRanking() {
+        Task secondTask = Task.builder()
+                .id(2L)
+                .title("Second Task")
+                .completed(false)
+                .user(testUser)
+                .tags(new HashSet<>())
+                .build();
+
+        when(taskSearchIndex.search(testUser.getId(), "task", 20)).thenReturn(List.of(2L, 1L));
+        when(taskRepository.findByUserAndIdIn(testUser, List.of(2L, 1L)))
+                .thenReturn(List.of(testTask, secondTask));
+
+        List<TaskResponse> results = taskService.searchTasks(testUser, "task", null);
+
+        assertEquals(List.of(2L, 1L), results.stream().map(TaskResponse::getId).toList());
+    }
+
+    @Test
+    void searchTasks_BlankQuery() {
+        assertThrows(BadRequestException.class, () -> taskService.searchTasks(testUser, " ", null));
+        verifyNoInteractions(taskSearchIndex);
+    }
+
+    @Test
+    void getChanges_MergesWritesAndDeletionsBySequence() {
+        testTask.setChangeSeq(3L);
+        TaskTombstone first = TaskTombstone.builder().taskId(7L).changeSeq(2L).build();
+        TaskTombstone last = TaskTombstone.builder().taskId(8L).changeSeq(4L).build();
+
+        when(taskRepository.findChangesAfter(eq(testUser), eq(1L), eq(5L), any()))
+                .thenReturn(List.of(testTask));
+        when(taskTombstoneRepository.findChangesAfter(eq(testUser.getId()), eq(1L), eq(5L), any()))
+                .thenReturn(List.of(first, last));
+
+        TaskChangesResponse changes = taskService.getChanges(testUser, new ChangeCursor(1L, 5L).encode(), 2);
+
+        assertEquals(List.of(7L), changes.getDeleted().stream().map(TaskChangesResponse.DeletedTask::getId).toList());
+        assertEquals(List.of(1L), changes.getUpdated().stream().map(TaskResponse::getId).toList());
+        assertEquals(new ChangeCursor(3L, 1L).encode(), changes.getNextCursor());
+        assertTrue(changes.getHasMore());
+    }
+
+    @Test
+    void getChanges_InvalidCursor() {
+        assertThrows(BadRequestException.class, () -> taskService.getChanges(testUser, "bogus", null));
+    }
+
+    @Test
+    void applyBulk_RejectsTaskInSeveralOperations() {
+        List<BulkTaskOperation> operations = List.of(
+                BulkTaskOperation.builder().op(BulkTaskOperation.Type.COMPLETE).id(1L).build(),
+                BulkTaskOperation.builder().op(BulkTaskOperation.Type.DELETE).id(1L).build());
 
-        assertNotNull(responses);
-        assertEquals(1, responses.size());
-        verify(taskRepository).findByUserAndCompletedOrderByDueDateAsc(testUser, false);
+        assertThrows(BadRequestException.class, () -> taskService.applyBulk(operations, testUser));
+        verifyNoInteractions(dataVersionService);
+    }
+
+    @Test
+    void applyBulk_MissingTask() {
+        List<BulkTaskOperation> operations = List.of(
+                BulkTaskOperation.builder().op(BulkTaskOperation.Type.DELETE).id(1L).build(),
+                BulkTaskOperation.builder().op(BulkTaskOperation.Type.DELETE).id(2L).build());
+        when(taskRepository.countByUserAndIdIn(eq(testUser), any())).thenReturn(1L);
+
+        assertThrows(ResourceNotFoundException.class, () -> taskService.applyBulk(operations, testUser));
+        verify(taskRepository, never()).deleteByUserAndIds(any(), any());
     }
 
     @Test
@@ -176,7 +344,8 @@ class TaskServiceTest {
         TaskResponse response = taskService.updateTask(1L, request, testUser);
 
         assertNotNull(response);
-        verify(taskRepository, times(2)).save(any(Task.class));
+        verify(taskRepository).save(any(Task.class));
+        verify(calendarOutboxRepository).insertSyncs(eq(testUser.getId()), eq(List.of(1L)), any());
     }
 
     @Test
@@ -199,18 +368,19 @@ class TaskServiceTest {
 
         when(taskRepository.findByIdAndUser(1L, testUser))
                 .thenReturn(Optional.of(testTask));
-        doNothing().when(googleCalenderService).deleteCalendarEvent(any(), any());
         doNothing().when(taskRepository).delete(any(Task.class));
 
         taskService.deleteTask(1L, testUser);
 
-        verify(googleCalenderService).deleteCalendarEvent("event-123", testUser);
+        verify(calendarOutboxRepository).insertDeletes(eq(testUser.getId()), eq(List.of(1L)), any());
         verify(taskRepository).delete(testTask);
+        verify(taskTombstoneRepository).save(argThat(tombstone -> tombstone.getTaskId().equals(1L)));
     }
 
     @Test
     void deleteTask_WithoutGoogleEvent_Success() {
         testTask.setGoogleEventId(null);
+        testTask.setDueDate(null);
 
         when(taskRepository.findByIdAndUser(1L, testUser))
                 .thenReturn(Optional.of(testTask));
@@ -218,7 +388,7 @@ class TaskServiceTest {
 
         taskService.deleteTask(1L, testUser);
 
-        verify(googleCalenderService, never()).deleteCalendarEvent(any(), any());
+        verify(calendarOutboxRepository, never()).insertDeletes(any(), any(), any());
         verify(taskRepository).delete(testTask);
     }
 